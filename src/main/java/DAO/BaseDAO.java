@@ -1,22 +1,204 @@
 package DAO;
 
 import db.DatabaseConnection;
+import db.DatabaseExecutor;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public abstract class BaseDAO {
+    // Rows fetched per round trip by the stream* methods
+    protected static final int DEFAULT_FETCH_SIZE = 500;
+
+    // Pinned connection; when null every operation borrows its own from the pool
     protected Connection connection;
 
+    private Connection pinnedTarget;
+    private Connection pinnedView;
+
     public BaseDAO() {
-        this.connection = DatabaseConnection.getConnection();
     }
 
     public void setConnection(Connection connection) {
         this.connection = connection;
     }
 
+    /**
+     * Connection for one operation or one transaction. Always close it when done:
+     * a pooled connection goes back to the pool, while a connection pinned through
+     * setConnection or bound by a surrounding TransactionTemplate is left open for
+     * whoever owns it.
+     */
+    protected Connection borrowConnection() throws SQLException {
+        Connection pinned = pinnedConnection();
+        return pinned != null ? pinned : DatabaseConnection.getRouter().borrowPrimary();
+    }
+
+    // Same as borrowConnection, but read-only work may be served by a replica
+    // unless it runs inside a transaction, which always stays on the primary
+    protected Connection borrowReadConnection() throws SQLException {
+        Connection pinned = pinnedConnection();
+        return pinned != null ? pinned : DatabaseConnection.getRouter().borrowRead();
+    }
+
+    // Runs an INSERT, UPDATE or DELETE; changed rows keep this session's reads on the primary
+    protected int executeWrite(PreparedStatement stmt) throws SQLException {
+        int rows = stmt.executeUpdate();
+        if (rows > 0) {
+            TransactionTemplate.markWrite();
+        }
+        return rows;
+    }
+
+    // Batch counterpart of executeWrite
+    protected int[] executeWriteBatch(PreparedStatement stmt) throws SQLException {
+        int[] results = stmt.executeBatch();
+        for (int result : results) {
+            if (result != 0) {
+                TransactionTemplate.markWrite();
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Runs work as one transaction on this DAO's connection, joining any active one
+    protected <T> T inTransaction(TransactionCallback<T> work) throws SQLException {
+        return new TransactionTemplate(this::borrowConnection).execute(work);
+    }
+
+    /**
+     * Runs a keyset page query whose last placeholder is the LIMIT. One row more than
+     * the page size is fetched to find out whether another page follows.
+     */
+    protected <T> Page<T> queryPage(String sql, int pageSize, RowMapper<T> mapper, Object... params) {
+        List<T> rows = new ArrayList<>();
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            stmt.setInt(params.length + 1, pageSize + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rows = mapAll(rs, mapper);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.of(rows, pageSize);
+    }
+
+    // Maps every remaining row, resolving the mapper's columns only once
+    protected <T> List<T> mapAll(ResultSet rs, RowMapper<T> mapper) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        RowMapper<T> bound = null;
+        while (rs.next()) {
+            if (bound == null) {
+                bound = mapper.bind(rs);
+            }
+            rows.add(bound.mapRow(rs));
+        }
+        return rows;
+    }
+
+    // Streams the rows of a read-only query; the caller must close the stream
+    protected <T> Stream<T> streamQuery(String sql, int fetchSize, RowMapper<T> mapper, Object... params) {
+        try {
+            return ResultSetStream.open(borrowReadConnection(), sql, fetchSize, mapper, params);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Streams every row of a read-only query into sink as strings, column labels in
+     * lower case. Returns the number of rows written, or -1 if the query or the sink
+     * failed part way.
+     */
+    protected long exportQuery(String sql, RowSink sink, Object... params) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = ResultSetStream.prepare(conn, sql, DEFAULT_FETCH_SIZE, params);
+             ResultSet rs = stmt.executeQuery()) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int count = meta.getColumnCount();
+            String[] columns = new String[count];
+            boolean[] numeric = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                columns[i] = meta.getColumnLabel(i + 1).toLowerCase();
+                numeric[i] = isNumeric(meta.getColumnType(i + 1));
+            }
+            sink.start(columns, numeric);
+
+            String[] values = new String[count];
+            long rows = 0;
+            while (rs.next()) {
+                for (int i = 0; i < count; i++) {
+                    values[i] = rs.getString(i + 1);
+                }
+                sink.row(values);
+                rows++;
+            }
+            return rows;
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.DECIMAL, Types.NUMERIC, Types.REAL, Types.FLOAT, Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Runs a DAO call on the database executor. The call does not join a transaction
+    // bound to the caller's thread, so keep transactional work synchronous.
+    protected <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, DatabaseExecutor.get());
+    }
+
+    private Connection pinnedConnection() {
+        Connection pinned = connection;
+        if (pinned == null) {
+            // Bound per thread, so not cached on this (possibly shared) DAO instance
+            Connection bound = TransactionTemplate.currentConnection();
+            return bound == null ? null : nonClosing(bound);
+        }
+        if (pinnedTarget != pinned) {
+            pinnedView = nonClosing(pinned);
+            pinnedTarget = pinned;
+        }
+        return pinnedView;
+    }
+
+    private static Connection nonClosing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
     protected void closeResources(ResultSet rs, PreparedStatement stmt) {
         try {
             if (rs != null) rs.close();
@@ -0,0 +1,49 @@
+package DAO;
+
+public class CacheStats {
+    private final int size;
+    private final int maxEntries;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long evictions;
+    private final long expirations;
+
+    public CacheStats(int size, int maxEntries, long hits, long misses, long loads, long evictions, long expirations) {
+        this.size = size;
+        this.maxEntries = maxEntries;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public int getSize() { return size; }
+    public int getMaxEntries() { return maxEntries; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    // Queries actually run; lower than misses when concurrent misses shared a load
+    public long getLoads() { return loads; }
+    public long getEvictions() { return evictions; }
+    public long getExpirations() { return expirations; }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "size=" + size +
+                ", max=" + maxEntries +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRatio=" + String.format("%.0f%%", getHitRatio() * 100) +
+                ", loads=" + loads +
+                ", evictions=" + evictions +
+                ", expirations=" + expirations +
+                '}';
+    }
+}
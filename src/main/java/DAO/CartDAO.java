@@ -1,10 +1,13 @@
 package DAO;
 
 import models.CartItem;
-import models.Product;
+import models.CartSummary;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class CartDAO extends BaseDAO {
     private static final String ADD_TO_CART = """
@@ -17,6 +20,13 @@ public class CartDAO extends BaseDAO {
         FROM Cart c JOIN Products p ON c.product_id = p.id 
         WHERE c.user_id = ?""";
 
+    // One aggregate row even for an empty cart, so badges never need the lines
+    private static final String GET_CART_SUMMARY = """
+        SELECT COALESCE(SUM(c.quantity), 0) AS item_count, COUNT(*) AS line_count,
+               COALESCE(SUM(c.quantity * p.price), 0) AS total
+        FROM Cart c JOIN Products p ON c.product_id = p.id
+        WHERE c.user_id = ?""";
+
     private static final String UPDATE_QUANTITY = """
         UPDATE Cart SET quantity = ? 
         WHERE user_id = ? AND product_id = ?""";
@@ -29,32 +39,105 @@ public class CartDAO extends BaseDAO {
         DELETE FROM Cart WHERE user_id = ?""";
 
     public boolean addToCart(int userId, int productId, int quantity) {
-        try (PreparedStatement stmt = connection.prepareStatement(ADD_TO_CART)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(ADD_TO_CART)) {
             stmt.setInt(1, userId);
             stmt.setInt(2, productId);
             stmt.setInt(3, quantity);
-            return stmt.executeUpdate() > 0 ;
+            return executeWrite(stmt) > 0 ;
         } catch (SQLException e) {
             System.out.println("ERROR ADDING TO CART");
             return false;
         }
     }
 
+    /**
+     * Adds every product/quantity pair as one batched upsert in one transaction;
+     * quantities add to any already in the cart. Nothing is added if any line fails.
+     */
+    public boolean addItems(int userId, Map<Integer, Integer> quantities) {
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(ADD_TO_CART)) {
+                    for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                        stmt.setInt(1, userId);
+                        stmt.setInt(2, line.getKey());
+                        stmt.setInt(3, line.getValue());
+                        stmt.addBatch();
+                    }
+                    return allApplied(executeWriteBatch(stmt));
+                }
+            });
+        } catch (SQLException e) {
+            System.out.println("ERROR ADDING TO CART: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Moves a cart collected before login into the user's cart through the same batched upsert
+    public boolean mergeGuestCart(int userId, Map<Integer, Integer> guestCart) {
+        return guestCart.isEmpty() || addItems(userId, guestCart);
+    }
+
+    // Removes all given products in one batch; rolls back unless every one was in the cart
+    public boolean removeItems(int userId, Collection<Integer> productIds) {
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(REMOVE_ITEM)) {
+                    for (int productId : productIds) {
+                        stmt.setInt(1, userId);
+                        stmt.setInt(2, productId);
+                        stmt.addBatch();
+                    }
+                    return allApplied(executeWriteBatch(stmt));
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Sets each product's quantity in one batch; rolls back unless every line was in the cart
+    public boolean setQuantities(int userId, Map<Integer, Integer> quantities) {
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_QUANTITY)) {
+                    for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                        stmt.setInt(1, line.getValue());
+                        stmt.setInt(2, userId);
+                        stmt.setInt(3, line.getKey());
+                        stmt.addBatch();
+                    }
+                    return allApplied(executeWriteBatch(stmt));
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static boolean allApplied(int[] results) {
+        for (int result : results) {
+            // SUCCESS_NO_INFO is what rewritten MySQL batches report
+            if (result == 0 || result == Statement.EXECUTE_FAILED) {
+                TransactionTemplate.setRollbackOnly();
+                return false;
+            }
+        }
+        return true;
+    }
+
     public List<CartItem> getCartItems(int userId) {
         List<CartItem> items = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(GET_CART_ITEMS)) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(GET_CART_ITEMS)) {
             stmt.setInt(1, userId);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Product product = new ProductDAO().mapResultSetToProduct(rs);
-                    items.add(new CartItem(
-                            userId,
-                            product,
-                            rs.getInt("quantity")
-                    ));
-                }
+                items.addAll(mapAll(rs, RowMappers.cartItem(userId)));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -62,12 +145,30 @@ public class CartDAO extends BaseDAO {
         return items;
     }
 
+    // Item count, distinct lines and total priced at current product prices; null on failure
+    public CartSummary getCartSummary(int userId) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(GET_CART_SUMMARY)) {
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return RowMappers.CART_SUMMARY.mapRow(rs);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     public boolean updateQuantity(int userId, int productId, int newQuantity) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_QUANTITY)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_QUANTITY)) {
             stmt.setInt(1, newQuantity);
             stmt.setInt(2, userId);
             stmt.setInt(3, productId);
-            return stmt.executeUpdate() > 0;
+            return executeWrite(stmt) > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -75,10 +176,11 @@ public class CartDAO extends BaseDAO {
     }
 
     public boolean removeItem(int userId, int productId) {
-        try (PreparedStatement stmt = connection.prepareStatement(REMOVE_ITEM)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(REMOVE_ITEM)) {
             stmt.setInt(1, userId);
             stmt.setInt(2, productId);
-            return stmt.executeUpdate() > 0;
+            return executeWrite(stmt) > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -86,12 +188,50 @@ public class CartDAO extends BaseDAO {
     }
 
     public boolean clearCart(int userId) {
-        try (PreparedStatement stmt = connection.prepareStatement(CLEAR_CART)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(CLEAR_CART)) {
             stmt.setInt(1, userId);
-            return stmt.executeUpdate() > 0;
+            return executeWrite(stmt) > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
+
+    // Asynchronous variants, run on DatabaseExecutor
+    public CompletableFuture<Boolean> addToCartAsync(int userId, int productId, int quantity) {
+        return async(() -> addToCart(userId, productId, quantity));
+    }
+
+    public CompletableFuture<Boolean> addItemsAsync(int userId, Map<Integer, Integer> quantities) {
+        return async(() -> addItems(userId, quantities));
+    }
+
+    public CompletableFuture<Boolean> removeItemsAsync(int userId, Collection<Integer> productIds) {
+        return async(() -> removeItems(userId, productIds));
+    }
+
+    public CompletableFuture<Boolean> setQuantitiesAsync(int userId, Map<Integer, Integer> quantities) {
+        return async(() -> setQuantities(userId, quantities));
+    }
+
+    public CompletableFuture<List<CartItem>> getCartItemsAsync(int userId) {
+        return async(() -> getCartItems(userId));
+    }
+
+    public CompletableFuture<CartSummary> getCartSummaryAsync(int userId) {
+        return async(() -> getCartSummary(userId));
+    }
+
+    public CompletableFuture<Boolean> updateQuantityAsync(int userId, int productId, int newQuantity) {
+        return async(() -> updateQuantity(userId, productId, newQuantity));
+    }
+
+    public CompletableFuture<Boolean> removeItemAsync(int userId, int productId) {
+        return async(() -> removeItem(userId, productId));
+    }
+
+    public CompletableFuture<Boolean> clearCartAsync(int userId) {
+        return async(() -> clearCart(userId));
+    }
 }
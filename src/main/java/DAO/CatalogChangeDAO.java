@@ -0,0 +1,69 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads the catalog_changes log for copies of the catalog kept between runs (see
+ * util.CatalogSnapshotStore), which catch up by time rather than by version. Times
+ * are the database's clock, the one that stamps changed_at.
+ */
+public class CatalogChangeDAO extends BaseDAO {
+    private static final String CURRENT_TIME = """
+        SELECT CURRENT_TIMESTAMP""";
+
+    private static final String FIND_CHANGED_IDS = """
+        SELECT DISTINCT entity_id FROM catalog_changes WHERE entity = ? AND changed_at >= ?""";
+
+    // Database time in milliseconds, or -1
+    public long currentTime() {
+        try (Connection conn = borrowReadConnection()) {
+            return currentTime(conn);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Ids of the products changed since the given database time, in id order. Rows
+     * are stamped when written but seen only once committed, so the search starts
+     * GAP_TIMEOUT_MILLIS earlier. Returns null if the query failed or the log may
+     * already have been pruned that far back.
+     */
+    public Set<Integer> findChangedProductIds(long since) {
+        long from = since - CatalogChangePoller.GAP_TIMEOUT_MILLIS;
+        try (Connection conn = borrowReadConnection()) {
+            if (currentTime(conn) - from >= CatalogChangePoller.RETENTION_MILLIS) {
+                return null;
+            }
+            Set<Integer> ids = new TreeSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_CHANGED_IDS)) {
+                stmt.setString(1, CatalogChangeLog.PRODUCT);
+                stmt.setTimestamp(2, new Timestamp(from));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                }
+            }
+            return ids;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static long currentTime(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(CURRENT_TIME);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends to the catalog_changes table, which other running instances poll (see
+ * CatalogChangePoller) to drop their cached copies of what changed, and which
+ * CatalogSnapshotStore reads to refresh the local catalog. Product inserts are logged
+ * too: ids are assigned at insert, so one committed late can have a lower id than
+ * rows the snapshot already holds.
+ */
+final class CatalogChangeLog {
+    static final String PRODUCT = "product";
+    static final String CATEGORY = "category";
+
+    // Tags this process's rows so its own poller can skip changes it applied locally
+    static final String ORIGIN = UUID.randomUUID().toString();
+
+    static final String RECORD_CHANGE = """
+        INSERT INTO catalog_changes(entity, entity_id, origin) VALUES (?, ?, ?)""";
+
+    private CatalogChangeLog() {
+    }
+
+    // Logs on conn, so a write made inside a transaction commits or rolls back with its log rows
+    static void record(Connection conn, String entity, Collection<Integer> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(RECORD_CHANGE)) {
+            for (int id : ids) {
+                stmt.setString(1, entity);
+                stmt.setInt(2, id);
+                stmt.setString(3, ORIGIN);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * For single autocommit writes that have already succeeded: a failure here only
+     * leaves other instances on their cached copy until it expires, so it is logged
+     * rather than reported as a failed write.
+     */
+    static void recordQuietly(Connection conn, String entity, int id) {
+        try {
+            record(conn, entity, List.of(id));
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Could not log " + entity + " " + id + " change: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package DAO;
+
+import db.ConnectionRouter;
+import db.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps this instance's product cache and category snapshot coherent with writes
+ * made by other instances. Each poll reads only the catalog_changes rows after the
+ * last version seen, then drops those product ids from the cache and re-reads those
+ * categories into the snapshot.
+ *
+ * Versions are assigned at insert but become visible at commit, so a later version
+ * can show up before an earlier one. Versions skipped over are remembered as gaps
+ * and re-checked for GAP_TIMEOUT_MILLIS; after that they are taken to belong to a
+ * rolled-back transaction.
+ *
+ * start() polls every db.cache.pollMillis (default 5000; 0 disables polling).
+ */
+public class CatalogChangePoller {
+    public static final long DEFAULT_POLL_MILLIS = 5_000L;
+    static final long GAP_TIMEOUT_MILLIS = 60_000L;
+    static final long RETENTION_MILLIS = 24 * 60 * 60_000L;
+    private static final long PRUNE_PERIOD_MILLIS = 60 * 60_000L;
+    private static final int MAX_CHANGES_PER_POLL = 1000;
+
+    private static final String FIND_CHANGES = """
+        SELECT version, entity, entity_id, origin FROM catalog_changes
+        WHERE version > ? ORDER BY version LIMIT ?""";
+
+    private static final String FIND_LATEST_VERSION = """
+        SELECT MAX(version) FROM catalog_changes""";
+
+    private static final String PRUNE = """
+        DELETE FROM catalog_changes WHERE changed_at < ?""";
+
+    private static ScheduledExecutorService scheduler;
+
+    private final ProductCache productCache;
+    private final CategoryDAO categoryDAO;
+    private final ConnectionRouter router;
+    private final LongSupplier clock;
+    // Highest version seen; -1 until the first poll starts from the current end of the log
+    private long lastSeen = -1;
+    // Versions below lastSeen not seen yet, with when they were first missed
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long lastPrune;
+
+    public CatalogChangePoller(ProductCache productCache, CategoryDAO categoryDAO) {
+        this(productCache, categoryDAO, DatabaseConnection.getRouter(), System::currentTimeMillis);
+    }
+
+    CatalogChangePoller(ProductCache productCache, CategoryDAO categoryDAO, ConnectionRouter router, LongSupplier clock) {
+        this.productCache = productCache;
+        this.categoryDAO = categoryDAO;
+        this.router = router;
+        this.clock = clock;
+        this.lastPrune = clock.getAsLong();
+    }
+
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        Properties settings = DatabaseConnection.getSettings();
+        long pollMillis = Long.parseLong(settings.getProperty("db.cache.pollMillis", String.valueOf(DEFAULT_POLL_MILLIS)).trim());
+        if (pollMillis <= 0) {
+            return;
+        }
+        CatalogChangePoller poller = new CatalogChangePoller(ProductCache.shared(), new CategoryDAO());
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-change-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(poller::poll, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Applies the changes committed since the last poll and returns how many were applied, or -1.
+    // Reads on the primary, where the log is never behind, without keeping other reads off the replicas
+    public synchronized int poll() {
+        try (Connection conn = router.borrowPrimary()) {
+            if (lastSeen < 0) {
+                lastSeen = latestVersion(conn);
+                return 0;
+            }
+            long now = clock.getAsLong();
+            gaps.values().removeIf(missedAt -> now - missedAt > GAP_TIMEOUT_MILLIS);
+
+            Set<Integer> products = new LinkedHashSet<>();
+            Set<Integer> categories = new LinkedHashSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_CHANGES)) {
+                stmt.setLong(1, gaps.isEmpty() ? lastSeen : gaps.firstKey() - 1);
+                stmt.setInt(2, MAX_CHANGES_PER_POLL);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long version = rs.getLong(1);
+                        if (!isNew(version, now)) {
+                            continue;
+                        }
+                        if (CatalogChangeLog.ORIGIN.equals(rs.getString(4))) {
+                            continue;
+                        }
+                        String entity = rs.getString(2);
+                        if (CatalogChangeLog.PRODUCT.equals(entity)) {
+                            products.add(rs.getInt(3));
+                        } else if (CatalogChangeLog.CATEGORY.equals(entity)) {
+                            categories.add(rs.getInt(3));
+                        }
+                    }
+                }
+            }
+
+            productCache.invalidateAll(products);
+            for (int id : categories) {
+                categoryDAO.refreshInSnapshot(id);
+            }
+            if (now - lastPrune >= PRUNE_PERIOD_MILLIS) {
+                prune(conn, now);
+            }
+            return products.size() + categories.size();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Catalog change poll failed: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // Advances past version, recording any versions it skipped; false if already applied
+    private boolean isNew(long version, long now) {
+        if (version <= lastSeen) {
+            return gaps.remove(version) != null;
+        }
+        for (long missing = lastSeen + 1; missing < version && gaps.size() < MAX_CHANGES_PER_POLL; missing++) {
+            gaps.put(missing, now);
+        }
+        lastSeen = version;
+        return true;
+    }
+
+    private void prune(Connection conn, long now) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(PRUNE)) {
+            stmt.setTimestamp(1, new Timestamp(now - RETENTION_MILLIS));
+            stmt.executeUpdate();
+        }
+        lastPrune = now;
+    }
+
+    private static long latestVersion(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_LATEST_VERSION);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    synchronized long getLastSeen() {
+        return lastSeen;
+    }
+
+    synchronized Map<Long, Long> getGaps() {
+        return new TreeMap<>(gaps);
+    }
+}
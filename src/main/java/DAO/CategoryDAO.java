@@ -5,6 +5,7 @@ import models.Category;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CategoryDAO extends BaseDAO {
     private static final String INSERT_CATEGORY = """
@@ -16,24 +17,38 @@ public class CategoryDAO extends BaseDAO {
     private static final String FIND_BY_ID = """
         SELECT * FROM Categories WHERE id = ?""";
 
+    private static final String FIND_PAGE = """
+        SELECT * FROM Categories WHERE id > ? ORDER BY id LIMIT ?""";
+
     private static final String DELETE_CATEGORY = """
         DELETE FROM Categories WHERE id = ?""";
     private static final String UPDATE_CATEGORY = """
     UPDATE Categories SET name = ?, admin_id = ? WHERE id = ?""";
 
+    // Shared by every CategoryDAO; null until first read and after an invalidation.
+    // Swaps and installs happen under SNAPSHOT_LOCK, reads just take the reference.
+    private static final Object SNAPSHOT_LOCK = new Object();
+    private static volatile CategorySnapshot snapshot;
+    private static long snapshotVersion;
+    private static long snapshotWrites;
 
     public int createCategory(Category category) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT_CATEGORY,
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY,
                 Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, category.getName());
             stmt.setInt(2, category.getAdminId());
 
-            stmt.executeUpdate();
+            beforeWrite();
+            executeWrite(stmt);
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    int id = rs.getInt(1);
+                    CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.CATEGORY, id);
+                    applyToSnapshot(new Category(id, category.getName(), category.getAdminId()), false);
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -43,47 +58,149 @@ public class CategoryDAO extends BaseDAO {
     }
 
     public List<Category> findAll() {
-        List<Category> categories = new ArrayList<>();
+        try {
+            return queryAll();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_ALL);
+    private List<Category> queryAll() throws SQLException {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL);
              ResultSet rs = stmt.executeQuery()) {
+            return mapAll(rs, RowMappers.CATEGORY);
+        }
+    }
 
-            while (rs.next()) {
-                categories.add(mapResultSetToCategory(rs));
-            }
+    /**
+     * All categories from the shared in-memory snapshot, loaded by the first call and
+     * kept current by this class's own writes. A pinned connection or an open
+     * transaction gets a private snapshot instead, since it may see uncommitted rows.
+     * If loading fails the result is an empty snapshot that is not kept.
+     */
+    public CategorySnapshot getSnapshot() {
+        boolean shared = connection == null && !TransactionTemplate.isActive();
+        CategorySnapshot current = snapshot;
+        if (shared && current != null) {
+            return current;
+        }
+        long writes;
+        long version;
+        synchronized (SNAPSHOT_LOCK) {
+            writes = snapshotWrites;
+            version = ++snapshotVersion;
+        }
+        CategorySnapshot loaded;
+        try {
+            loaded = new CategorySnapshot(version, queryAll());
         } catch (SQLException e) {
             e.printStackTrace();
+            return new CategorySnapshot(version, List.of());
         }
-        return categories;
+        if (shared) {
+            synchronized (SNAPSHOT_LOCK) {
+                // A write that landed while loading may be missing from these rows
+                if (snapshot == null && snapshotWrites == writes) {
+                    snapshot = loaded;
+                }
+            }
+        }
+        return loaded;
     }
 
-    public Category findById(int id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
-            stmt.setInt(1, id);
+    // Drops the shared snapshot so the next read reloads it, e.g. after edits made elsewhere
+    public static void invalidateSnapshot() {
+        synchronized (SNAPSHOT_LOCK) {
+            snapshotWrites++;
+            snapshot = null;
+        }
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToCategory(rs);
-                }
+    // Re-reads one category another instance changed into the shared snapshot
+    void refreshInSnapshot(int id) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Category category = queryById(id);
+            swapSnapshot(category != null ? category : new Category(id, null, 0), category == null);
+        } catch (SQLException e) {
+            System.err.println("Could not refresh category " + id + ": " + e.getMessage());
+            invalidateSnapshot();
+        }
+    }
+
+    // A load overlapping a pinned write, whose commit this class never sees, must not be installed
+    private void beforeWrite() {
+        if (connection != null && !TransactionTemplate.isActive()) {
+            invalidateSnapshot();
+        }
+    }
+
+    /**
+     * Swaps in a snapshot with this write applied. Inside a transaction that waits for
+     * the commit, so a load in between cannot install the rows from before it; on a
+     * pinned connection, whose commit is not seen here, the snapshot is dropped instead.
+     */
+    private void applyToSnapshot(Category category, boolean deleted) {
+        if (TransactionTemplate.isActive()) {
+            TransactionTemplate.afterCommit(() -> swapSnapshot(category, deleted));
+        } else if (connection != null) {
+            invalidateSnapshot();
+        } else {
+            swapSnapshot(category, deleted);
+        }
+    }
+
+    private static void swapSnapshot(Category category, boolean deleted) {
+        synchronized (SNAPSHOT_LOCK) {
+            snapshotWrites++;
+            if (snapshot != null) {
+                snapshot = deleted
+                        ? snapshot.without(category.getId(), ++snapshotVersion)
+                        : snapshot.with(category, ++snapshotVersion);
             }
+        }
+    }
+
+    // Keyset pages in id order; pass 0 for the first page, then the last id seen
+    public Page<Category> findPage(int afterId, int pageSize) {
+        return queryPage(FIND_PAGE, pageSize, RowMappers.CATEGORY, afterId);
+    }
+
+    public Category findById(int id) {
+        try {
+            return queryById(id);
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-        return null;
     }
 
-    private Category mapResultSetToCategory(ResultSet rs) throws SQLException {
-        return new Category(
-                rs.getInt("id"),
-                rs.getString("name"),
-                rs.getInt("admin_id")
-        );
+    private Category queryById(int id) throws SQLException {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)) {
+            stmt.setInt(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? RowMappers.CATEGORY.mapRow(rs) : null;
+            }
+        }
     }
 
     public boolean deleteCategory(int id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE_CATEGORY)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_CATEGORY)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            beforeWrite();
+            boolean deleted = executeWrite(stmt) > 0;
+            if (deleted) {
+                CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.CATEGORY, id);
+                applyToSnapshot(new Category(id, null, 0), true);
+            }
+            return deleted;
         } catch (SQLException e) {
             if (e.getMessage().contains("foreign key") || e.getMessage().contains("a foreign key constraint fails")) {
                 System.err.println("Cannot delete category: it has related products.");
@@ -95,15 +212,55 @@ public class CategoryDAO extends BaseDAO {
     }
 
     public boolean updateCategory(Category category) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_CATEGORY)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_CATEGORY)) {
             stmt.setString(1, category.getName());
             stmt.setInt(2, category.getAdminId());
             stmt.setInt(3, category.getId());
-            return stmt.executeUpdate() > 0;
+            beforeWrite();
+            boolean updated = executeWrite(stmt) > 0;
+            if (updated) {
+                CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.CATEGORY, category.getId());
+                applyToSnapshot(category, false);
+            }
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
-}
\ No newline at end of file
+    // Asynchronous variants, run on DatabaseExecutor
+    public CompletableFuture<List<Category>> findAllAsync() {
+        return async(this::findAll);
+    }
+
+    // Completes immediately once the shared snapshot is loaded
+    public CompletableFuture<CategorySnapshot> getSnapshotAsync() {
+        CategorySnapshot current = snapshot;
+        if (current != null && connection == null) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return async(this::getSnapshot);
+    }
+
+    public CompletableFuture<Page<Category>> findPageAsync(int afterId, int pageSize) {
+        return async(() -> findPage(afterId, pageSize));
+    }
+
+    public CompletableFuture<Category> findByIdAsync(int id) {
+        return async(() -> findById(id));
+    }
+
+    public CompletableFuture<Integer> createCategoryAsync(Category category) {
+        return async(() -> createCategory(category));
+    }
+
+    public CompletableFuture<Boolean> updateCategoryAsync(Category category) {
+        return async(() -> updateCategory(category));
+    }
+
+    public CompletableFuture<Boolean> deleteCategoryAsync(int id) {
+        return async(() -> deleteCategory(id));
+    }
+}
@@ -0,0 +1,76 @@
+package DAO;
+
+import models.Category;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of the Categories table at one version. Edits produce a new
+ * snapshot rather than changing this one, and callers get copies of the categories,
+ * so a snapshot can be shared freely between threads and screens.
+ */
+public final class CategorySnapshot {
+    private final long version;
+    private final Map<Integer, Category> byId;
+
+    CategorySnapshot(long version, Collection<Category> categories) {
+        Map<Integer, Category> map = new LinkedHashMap<>();
+        for (Category category : categories) {
+            map.put(category.getId(), copy(category));
+        }
+        this.version = version;
+        this.byId = Collections.unmodifiableMap(map);
+    }
+
+    private CategorySnapshot(long version, Map<Integer, Category> byId) {
+        this.version = version;
+        this.byId = Collections.unmodifiableMap(byId);
+    }
+
+    public long getVersion() { return version; }
+    public int size() { return byId.size(); }
+
+    public List<Category> getCategories() {
+        List<Category> categories = new ArrayList<>(byId.size());
+        for (Category category : byId.values()) {
+            categories.add(copy(category));
+        }
+        return categories;
+    }
+
+    // The category with this id, or null
+    public Category get(int id) {
+        Category category = byId.get(id);
+        return category == null ? null : copy(category);
+    }
+
+    public boolean contains(int id) {
+        return byId.containsKey(id);
+    }
+
+    // Adds or replaces one category
+    CategorySnapshot with(Category category, long newVersion) {
+        Map<Integer, Category> map = new LinkedHashMap<>(byId);
+        map.put(category.getId(), copy(category));
+        return new CategorySnapshot(newVersion, map);
+    }
+
+    CategorySnapshot without(int id, long newVersion) {
+        Map<Integer, Category> map = new LinkedHashMap<>(byId);
+        map.remove(id);
+        return new CategorySnapshot(newVersion, map);
+    }
+
+    private static Category copy(Category category) {
+        return new Category(category.getId(), category.getName(), category.getAdminId());
+    }
+
+    @Override
+    public String toString() {
+        return "CategorySnapshot{version=" + version + ", size=" + byId.size() + '}';
+    }
+}
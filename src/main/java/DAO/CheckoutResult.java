@@ -0,0 +1,67 @@
+package DAO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of OrderDAO.placeOrder: the new order id, or the lines that could not be
+ * filled. An order with short lines is rolled back as a whole.
+ */
+public class CheckoutResult {
+    private final int orderId;
+    private final List<ShortLine> shortLines;
+
+    private CheckoutResult(int orderId, List<ShortLine> shortLines) {
+        this.orderId = orderId;
+        this.shortLines = Collections.unmodifiableList(shortLines);
+    }
+
+    static CheckoutResult placed(int orderId) {
+        return new CheckoutResult(orderId, List.of());
+    }
+
+    static CheckoutResult shortOf(List<ShortLine> shortLines) {
+        return new CheckoutResult(-1, shortLines);
+    }
+
+    static CheckoutResult failed() {
+        return new CheckoutResult(-1, List.of());
+    }
+
+    public boolean isPlaced() {
+        return orderId > 0;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public List<ShortLine> getShortLines() {
+        return shortLines;
+    }
+
+    public static class ShortLine {
+        private final int productId;
+        private final String productName;
+        private final int requested;
+        private final int available;
+
+        public ShortLine(int productId, String productName, int requested, int available) {
+            this.productId = productId;
+            this.productName = productName;
+            this.requested = requested;
+            this.available = available;
+        }
+
+        public int getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public int getRequested() { return requested; }
+        public int getAvailable() { return available; }
+
+        @Override
+        public String toString() {
+            String name = productName != null ? productName : "Product #" + productId;
+            return name + ": requested " + requested + ", available " + available;
+        }
+    }
+}
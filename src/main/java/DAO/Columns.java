@@ -0,0 +1,65 @@
+package DAO;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column labels of one result set resolved to indices from its metadata. When a label
+ * appears more than once (as with joins over oi.* and p.*) the first column wins,
+ * which matches what ResultSet.getXxx(label) does. A label the metadata does not
+ * know, or a result set without metadata, falls back to lookup by name.
+ */
+public final class Columns {
+    private final Map<String, Integer> indices;
+
+    private Columns(Map<String, Integer> indices) {
+        this.indices = indices;
+    }
+
+    public static Columns of(ResultSet rs) throws SQLException {
+        Map<String, Integer> indices = new HashMap<>();
+        ResultSetMetaData metaData = rs.getMetaData();
+        if (metaData != null) {
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                indices.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+        return new Columns(indices);
+    }
+
+    public Column get(String label) {
+        Integer index = indices.get(label.toLowerCase(Locale.ROOT));
+        return new Column(label, index == null ? 0 : index);
+    }
+
+    public static final class Column {
+        private final String label;
+        private final int index;
+
+        private Column(String label, int index) {
+            this.label = label;
+            this.index = index;
+        }
+
+        public int getInt(ResultSet rs) throws SQLException {
+            return index > 0 ? rs.getInt(index) : rs.getInt(label);
+        }
+
+        public double getDouble(ResultSet rs) throws SQLException {
+            return index > 0 ? rs.getDouble(index) : rs.getDouble(label);
+        }
+
+        public String getString(ResultSet rs) throws SQLException {
+            return index > 0 ? rs.getString(index) : rs.getString(label);
+        }
+
+        public Timestamp getTimestamp(ResultSet rs) throws SQLException {
+            return index > 0 ? rs.getTimestamp(index) : rs.getTimestamp(label);
+        }
+    }
+}
@@ -3,123 +3,213 @@ package DAO;
 import models.Order;
 import models.OrderItem;
 import models.OrderStatus;
-import models.Product;
+import models.OrderSummary;
+import models.OrderWithItems;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class OrderDAO extends BaseDAO {
-    private ProductDAO productDAO = new ProductDAO();
+    private static final int ITEM_CACHE_SIZE = 500;
+
+    // Orders and their items in one pass: the inner query picks the orders, the joins add one row per item
+    private static final String ORDERS_WITH_ITEMS = """
+        SELECT o.id, o.user_id, o.order_date, o.total, o.status,
+               oi.quantity, oi.price AS item_price,
+               p.id AS product_id, p.name AS product_name, p.price AS product_price, p.category_id, p.stock
+        FROM (%s) o
+        LEFT JOIN OrderItems oi ON oi.order_id = o.id
+        LEFT JOIN Products p ON p.id = oi.product_id
+        ORDER BY o.order_date DESC, o.id DESC, oi.product_id""";
+
+    private static final String UPDATE_STATUS = "UPDATE Orders SET status = ? WHERE id = ?";
+
+    private static final String FIND_BY_USER = "SELECT * FROM Orders WHERE user_id = ?";
+
+    private static final String FIND_SUMMARIES_BY_USER = "SELECT id, total, order_date, status FROM Orders " +
+            "WHERE user_id = ? ORDER BY order_date DESC, id DESC";
+
+    private static final String FIND_ITEMS = "SELECT oi.*, p.id, p.name, p.price AS productPrice, p.category_id, p.stock " +
+            "FROM OrderItems oi JOIN Products p ON oi.product_id = p.id " +
+            "WHERE oi.order_id = ?";
+
+    private static final String FIND_ITEMS_PAGE = "SELECT oi.*, p.id, p.name, p.price AS productPrice, p.category_id, p.stock " +
+            "FROM OrderItems oi JOIN Products p ON oi.product_id = p.id " +
+            "WHERE oi.order_id = ? AND oi.product_id > ? ORDER BY oi.product_id LIMIT ?";
+
     private CartDAO cartDAO = new CartDAO(); // Add CartDAO
+    private ProductCache productCache = ProductCache.shared();
 
+    // Items never change once their order is placed, so repeat selections are served from here
+    private final Map<Integer, List<OrderItem>> itemCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<OrderItem>> eldest) {
+                    return size() > ITEM_CACHE_SIZE;
+                }
+            });
 
-    // Set connection for both OrderDAO and ProductDAO
-    @Override
-    public void setConnection(Connection connection) {
-        super.setConnection(connection);
-        productDAO.setConnection(connection);
-        cartDAO.setConnection(connection); // Set connection for CartDAO
 
+    // Stock check, inserts and cart clearing commit together; CartDAO joins the
+    // transaction through the connection the template binds to this thread
+    public int createOrder(Order order, List<OrderItem> orderItems) {
+        return placeOrder(order, orderItems).getOrderId();
     }
 
-    public int createOrder(Order order, List<OrderItem> orderItems) {
-        int orderId = -1;
-        boolean originalAutoCommit = false;
+    /**
+     * Places an order and reports which lines are short when it cannot. All product
+     * rows are locked by one SELECT ... FOR UPDATE in ascending id order, so concurrent
+     * checkouts cannot deadlock on each other or oversell, and the locks are held for
+     * a fixed number of round trips however large the cart is.
+     */
+    public CheckoutResult placeOrder(Order order, List<OrderItem> orderItems) {
         try {
-            // Preserve and manage transaction state
-            originalAutoCommit = connection.getAutoCommit();
-            connection.setAutoCommit(false);
-
-            // 1. Validate stock availability first
+            return inTransaction(conn -> insertOrder(conn, order, orderItems));
+        } catch (SQLException e) {
+            System.out.println("Order creation failed: " + e.getMessage());
+            return CheckoutResult.failed();
+        } finally {
+            // After commit, so a cached read taken before it cannot outlive the new stock
             for (OrderItem item : orderItems) {
-                Product product = productDAO.findById(item.getProduct().getId());
-                if (product == null || product.getStock() < item.getQuantity()) {
-                    connection.rollback();
-                    return -1;
-                }
+                int productId = item.getProduct().getId();
+                TransactionTemplate.afterCommit(() -> productCache.invalidate(productId));
             }
+        }
+    }
 
-            // 2. Create the order
-            String insertOrderSQL = "INSERT INTO Orders(user_id, total, status) VALUES (?, ?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(insertOrderSQL, Statement.RETURN_GENERATED_KEYS)) {
-                stmt.setInt(1, order.getUserId());
-                stmt.setDouble(2, order.getTotal());
-                stmt.setString(3, order.getStatus().toString());
-
-                int affectedRows = stmt.executeUpdate();
-                if (affectedRows == 0) {
-                    connection.rollback();
-                    return -1;
-                }
+    private CheckoutResult insertOrder(Connection conn, Order order, List<OrderItem> orderItems) throws SQLException {
+        int orderId = -1;
 
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        orderId = rs.getInt(1);
-                        order.setId(orderId);
-                    }
-                }
+        // Several lines may be for the same product; TreeMap keeps ids ascending for locking
+        Map<Integer, Integer> requested = new TreeMap<>();
+        for (OrderItem item : orderItems) {
+            requested.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        // 1. Lock and validate all product rows at once
+        List<CheckoutResult.ShortLine> shortLines = lockAndCheckStock(conn, requested);
+        if (!shortLines.isEmpty()) {
+            TransactionTemplate.setRollbackOnly();
+            return CheckoutResult.shortOf(shortLines);
+        }
+
+        // 2. Create the order
+        String insertOrderSQL = "INSERT INTO Orders(user_id, total, status) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertOrderSQL, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, order.getUserId());
+            stmt.setDouble(2, order.getTotal());
+            stmt.setString(3, order.getStatus().toString());
+
+            int affectedRows = executeWrite(stmt);
+            if (affectedRows == 0) {
+                TransactionTemplate.setRollbackOnly();
+                return CheckoutResult.failed();
             }
 
-            // 3. Insert order items
-            String insertOrderItemSQL = "INSERT INTO OrderItems(order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(insertOrderItemSQL)) {
-                for (OrderItem item : orderItems) {
-                    stmt.setInt(1, orderId);
-                    stmt.setInt(2, item.getProduct().getId());
-                    stmt.setInt(3, item.getQuantity());
-                    stmt.setDouble(4, item.getPrice());
-                    stmt.addBatch();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    orderId = rs.getInt(1);
+                    order.setId(orderId);
                 }
+            }
+        }
 
-                int[] results = stmt.executeBatch();
-                for (int res : results) {
-                    if (res == Statement.EXECUTE_FAILED) {
-                        connection.rollback();
-                        return -1;
-                    }
+        // 3. Insert order items
+        String insertOrderItemSQL = "INSERT INTO OrderItems(order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertOrderItemSQL)) {
+            for (OrderItem item : orderItems) {
+                stmt.setInt(1, orderId);
+                stmt.setInt(2, item.getProduct().getId());
+                stmt.setInt(3, item.getQuantity());
+                stmt.setDouble(4, item.getPrice());
+                stmt.addBatch();
+            }
+
+            int[] results = executeWriteBatch(stmt);
+            for (int res : results) {
+                if (res == Statement.EXECUTE_FAILED) {
+                    TransactionTemplate.setRollbackOnly();
+                    return CheckoutResult.failed();
                 }
             }
+        }
+
+        // 4. Decrement stock, only where enough is left
+        String updateStockSQL = "UPDATE Products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+        try (PreparedStatement stmt = conn.prepareStatement(updateStockSQL)) {
+            for (Map.Entry<Integer, Integer> line : requested.entrySet()) {
+                stmt.setInt(1, line.getValue());
+                stmt.setInt(2, line.getKey());
+                stmt.setInt(3, line.getValue());
+                stmt.addBatch();
+            }
 
-            // 4. Update product stock
-            String updateStockSQL = "UPDATE Products SET stock = stock - ? WHERE id = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(updateStockSQL)) {
-                for (OrderItem item : orderItems) {
-                    stmt.setInt(1, item.getQuantity());
-                    stmt.setInt(2, item.getProduct().getId());
-                    stmt.addBatch();
+            int[] updateResults = executeWriteBatch(stmt);
+            int i = 0;
+            for (Map.Entry<Integer, Integer> line : requested.entrySet()) {
+                int result = updateResults[i++];
+                if (result == Statement.EXECUTE_FAILED) {
+                    TransactionTemplate.setRollbackOnly();
+                    return CheckoutResult.failed();
+                }
+                if (result == 0) {
+                    // Only possible where the row lock above is not honoured
+                    shortLines.add(new CheckoutResult.ShortLine(line.getKey(), null, line.getValue(), 0));
                 }
+            }
+        }
+        if (!shortLines.isEmpty()) {
+            TransactionTemplate.setRollbackOnly();
+            return CheckoutResult.shortOf(shortLines);
+        }
+        CatalogChangeLog.record(conn, CatalogChangeLog.PRODUCT, requested.keySet());
+        cartDAO.clearCart(order.getUserId());
+        return CheckoutResult.placed(orderId);
+    }
 
-                int[] updateResults = stmt.executeBatch();
-                for (int result : updateResults) {
-                    if (result == Statement.EXECUTE_FAILED) {
-                        connection.rollback();
-                        return -1;
+    private List<CheckoutResult.ShortLine> lockAndCheckStock(Connection conn, Map<Integer, Integer> requested)
+            throws SQLException {
+        List<CheckoutResult.ShortLine> shortLines = new ArrayList<>();
+        if (requested.isEmpty()) {
+            return shortLines;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(requested.size(), "?"));
+        String lockSQL = "SELECT id, name, stock FROM Products WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE";
+        Map<Integer, Integer> remaining = new TreeMap<>(requested);
+        try (PreparedStatement stmt = conn.prepareStatement(lockSQL)) {
+            setParameters(stmt, requested.keySet().toArray());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    int stock = rs.getInt(3);
+                    int wanted = remaining.remove(id);
+                    if (stock < wanted) {
+                        shortLines.add(new CheckoutResult.ShortLine(id, rs.getString(2), wanted, stock));
                     }
                 }
             }
-            cartDAO.clearCart(order.getUserId());
-            connection.commit();
-            return orderId;
-
-        } catch (SQLException e) {
-            try { connection.rollback(); }
-            catch (SQLException ex) { /* Log error */ }
-            System.out.println("Order creation failed: " + e.getMessage());
-            return -1;
-        } finally {
-            try { connection.setAutoCommit(originalAutoCommit); }
-            catch (SQLException ex) { /* Log error */ }
         }
+        // Whatever is left no longer exists
+        for (Map.Entry<Integer, Integer> missing : remaining.entrySet()) {
+            shortLines.add(new CheckoutResult.ShortLine(missing.getKey(), null, missing.getValue(), 0));
+        }
+        return shortLines;
     }
 
     // Existing methods remain unchanged below
     public void updateOrderStatus(int orderId, OrderStatus status) {
-        String sql = "UPDATE Orders SET status = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
             stmt.setString(1, status.toString());
             stmt.setInt(2, orderId);
-            stmt.executeUpdate();
+            executeWrite(stmt);
         } catch (SQLException e) {
             System.out.println("Status update failed: " + e.getMessage());
         }
@@ -127,13 +217,11 @@ public class OrderDAO extends BaseDAO {
 
     public List<Order> getOrdersByUser(int userId) {
         List<Order> orders = new ArrayList<>();
-        String sql = "SELECT * FROM Orders WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_USER)) {
             stmt.setInt(1, userId);
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    orders.add(mapResultSetToOrder(rs));
-                }
+                orders.addAll(mapAll(rs, RowMappers.ORDER));
             }
         } catch (SQLException e) {
             System.out.println("Error fetching user orders: " + e.getMessage());
@@ -141,51 +229,251 @@ public class OrderDAO extends BaseDAO {
         return orders;
     }
 
+    // A user's orders newest first, with only the columns an order picker shows
+    public List<OrderSummary> getOrderSummaries(int userId) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_SUMMARIES_BY_USER)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return mapAll(rs, RowMappers.ORDER_SUMMARY);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching order summaries: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     public List<Order> getAllOrders() {
         List<Order> orders = new ArrayList<>();
         String sql = "SELECT * FROM Orders";
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                orders.add(mapResultSetToOrder(rs));
-            }
+            orders.addAll(mapAll(rs, RowMappers.ORDER));
         } catch (SQLException e) {
             System.out.println("Error fetching all orders: " + e.getMessage());
         }
         return orders;
     }
 
+    /**
+     * Keyset page of orders, newest first, seeking on (order_date, id). Pass null as
+     * after for the first page, then the last order of the previous page; status
+     * optionally restricts the page to one status.
+     */
+    public Page<Order> getOrdersPage(OrderStatus status, Order after, int pageSize) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addPageConditions(conditions, params, status, after);
+        String sql = ordersWhere(conditions) + " ORDER BY order_date DESC, id DESC LIMIT ?";
+        return queryPage(sql, pageSize, RowMappers.ORDER, params.toArray());
+    }
+
+    private void addPageConditions(List<String> conditions, List<Object> params, OrderStatus status, Order after) {
+        if (status != null) {
+            conditions.add("status = ?");
+            params.add(status.toString());
+        }
+        if (after != null) {
+            Timestamp afterDate = Timestamp.valueOf(after.getOrderDate());
+            conditions.add("(order_date < ? OR (order_date = ? AND id < ?))");
+            params.add(afterDate);
+            params.add(afterDate);
+            params.add(after.getId());
+        }
+    }
+
+    // Keyset page of an order's items in product id order; pass 0 for the first page
+    public Page<OrderItem> getOrderItemsPage(int orderId, int afterProductId, int pageSize) {
+        return queryPage(FIND_ITEMS_PAGE, pageSize, RowMappers.orderItem(orderId), orderId, afterProductId);
+    }
+
+    // Constant-memory alternative to getAllOrders for exports and reports; close the stream when done
+    public Stream<Order> streamAllOrders() {
+        return streamAllOrders(DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Order> streamAllOrders(int fetchSize) {
+        return streamQuery("SELECT * FROM Orders", fetchSize, RowMappers.ORDER);
+    }
+
+    // Writes orders to sink straight from the cursor; null filters match everything.
+    // Returns the row count or -1.
+    public long exportOrders(LocalDateTime from, LocalDateTime to, OrderStatus status, RowSink sink) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addExportConditions(conditions, params, from, to, status);
+        String sql = "SELECT id, user_id, order_date, total, status FROM Orders"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY id";
+        return exportQuery(sql, sink, params.toArray());
+    }
+
+    // Items of the orders exportOrders would write for the same filters
+    public long exportOrderItems(LocalDateTime from, LocalDateTime to, OrderStatus status, RowSink sink) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addExportConditions(conditions, params, from, to, status);
+        String sql = "SELECT oi.order_id, oi.product_id, oi.quantity, oi.price FROM OrderItems oi"
+                + (conditions.isEmpty() ? "" : " JOIN Orders o ON o.id = oi.order_id WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY oi.order_id, oi.product_id";
+        return exportQuery(sql, sink, params.toArray());
+    }
+
+    private void addExportConditions(List<String> conditions, List<Object> params,
+                                     LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        addDateRange(conditions, params, from, to);
+        if (status != null) {
+            conditions.add("status = ?");
+            params.add(status.toString());
+        }
+    }
+
+    /**
+     * A user's orders with their items, newest first, from one joined query. from is
+     * inclusive, to exclusive, and either may be null for an open range. The items also
+     * warm the cache behind getOrderItems.
+     */
+    public List<OrderWithItems> getOrdersWithItems(int userId, LocalDateTime from, LocalDateTime to) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        conditions.add("user_id = ?");
+        params.add(userId);
+        addDateRange(conditions, params, from, to);
+        return queryOrdersWithItems(ordersWhere(conditions), params.toArray());
+    }
+
+    // Admin equivalent of getOrdersWithItems, across all users
+    public List<OrderWithItems> getAllOrdersWithItems(LocalDateTime from, LocalDateTime to) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addDateRange(conditions, params, from, to);
+        return queryOrdersWithItems(ordersWhere(conditions), params.toArray());
+    }
+
+    // Same keyset paging as getOrdersPage, with each page's items fetched in the same query
+    public Page<OrderWithItems> getOrdersWithItemsPage(OrderStatus status, Order after, int pageSize) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addPageConditions(conditions, params, status, after);
+        params.add(pageSize + 1);
+        String orders = ordersWhere(conditions) + " ORDER BY order_date DESC, id DESC LIMIT ?";
+        return Page.of(queryOrdersWithItems(orders, params.toArray()), pageSize);
+    }
+
+    private void addDateRange(List<String> conditions, List<Object> params, LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            conditions.add("order_date >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            conditions.add("order_date < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+    }
+
+    private String ordersWhere(List<String> conditions) {
+        return "SELECT * FROM Orders"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions));
+    }
+
+    // Rows arrive grouped by order, so each order is closed off as soon as the next one starts
+    private List<OrderWithItems> queryOrdersWithItems(String ordersQuery, Object... params) {
+        List<OrderWithItems> result = new ArrayList<>();
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(ORDERS_WITH_ITEMS, ordersQuery))) {
+            setParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Order> orderMapper = null;
+                RowMapper<OrderItem> itemMapper = null;
+                OrderWithItems current = null;
+                while (rs.next()) {
+                    if (orderMapper == null) {
+                        orderMapper = RowMappers.ORDER.bind(rs);
+                        itemMapper = RowMappers.ORDER_HISTORY_ITEM.bind(rs);
+                    }
+                    Order order = orderMapper.mapRow(rs);
+                    if (current == null || current.getOrder().getId() != order.getId()) {
+                        current = new OrderWithItems(order);
+                        result.add(current);
+                    }
+                    OrderItem item = itemMapper.mapRow(rs);
+                    if (item != null) {
+                        current.getItems().add(item);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching orders with items: " + e.getMessage());
+            return result;
+        }
+        for (OrderWithItems entry : result) {
+            itemCache.put(entry.getOrder().getId(), List.copyOf(entry.getItems()));
+        }
+        return result;
+    }
+
     public List<OrderItem> getOrderItems(int orderId) {
+        List<OrderItem> cached = itemCache.get(orderId);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
         List<OrderItem> items = new ArrayList<>();
-        String sql = "SELECT oi.*, p.id, p.name, p.price AS productPrice, p.category_id, p.stock " +
-                "FROM OrderItems oi JOIN Products p ON oi.product_id = p.id " +
-                "WHERE oi.order_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_ITEMS)) {
             stmt.setInt(1, orderId);
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Product product = productDAO.mapResultSetToProduct(rs);
-                    items.add(new OrderItem(
-                            orderId,
-                            product,
-                            rs.getInt("quantity"),
-                            rs.getDouble("price")
-                    ));
-                }
+                items.addAll(mapAll(rs, RowMappers.orderItem(orderId)));
             }
         } catch (SQLException e) {
             System.out.println("Error fetching order items: " + e.getMessage());
+            return items;
         }
+        itemCache.put(orderId, List.copyOf(items));
         return items;
     }
 
-    private Order mapResultSetToOrder(ResultSet rs) throws SQLException {
-        return new Order(
-                rs.getInt("id"),
-                rs.getInt("user_id"),
-                rs.getTimestamp("order_date").toLocalDateTime(),
-                rs.getDouble("total"),
-                OrderStatus.valueOf(rs.getString("status"))
-        );
+    // Asynchronous variants, run on DatabaseExecutor
+    public CompletableFuture<Integer> createOrderAsync(Order order, List<OrderItem> orderItems) {
+        return async(() -> createOrder(order, orderItems));
+    }
+
+    public CompletableFuture<CheckoutResult> placeOrderAsync(Order order, List<OrderItem> orderItems) {
+        return async(() -> placeOrder(order, orderItems));
+    }
+
+    public CompletableFuture<Void> updateOrderStatusAsync(int orderId, OrderStatus status) {
+        return async(() -> {
+            updateOrderStatus(orderId, status);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<Order>> getOrdersByUserAsync(int userId) {
+        return async(() -> getOrdersByUser(userId));
+    }
+
+    public CompletableFuture<List<OrderSummary>> getOrderSummariesAsync(int userId) {
+        return async(() -> getOrderSummaries(userId));
+    }
+
+    public CompletableFuture<List<Order>> getAllOrdersAsync() {
+        return async(this::getAllOrders);
+    }
+
+    public CompletableFuture<Page<Order>> getOrdersPageAsync(OrderStatus status, Order after, int pageSize) {
+        return async(() -> getOrdersPage(status, after, pageSize));
+    }
+
+    public CompletableFuture<List<OrderWithItems>> getOrdersWithItemsAsync(int userId, LocalDateTime from, LocalDateTime to) {
+        return async(() -> getOrdersWithItems(userId, from, to));
+    }
+
+    public CompletableFuture<Page<OrderWithItems>> getOrdersWithItemsPageAsync(OrderStatus status, Order after, int pageSize) {
+        return async(() -> getOrdersWithItemsPage(status, after, pageSize));
+    }
+
+    public CompletableFuture<List<OrderItem>> getOrderItemsAsync(int orderId) {
+        return async(() -> getOrderItems(orderId));
     }
-}
\ No newline at end of file
+}
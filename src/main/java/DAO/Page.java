@@ -0,0 +1,43 @@
+package DAO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query. The next page is requested with the key of
+ * the last item on this one, so every page costs the same index seek however deep
+ * it is.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final boolean hasNext;
+
+    public Page(List<T> items, boolean hasNext) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasNext = hasNext;
+    }
+
+    // Trims a result fetched with pageSize + 1 rows, the extra row only signalling a next page
+    static <T> Page<T> of(List<T> rows, int pageSize) {
+        if (rows.size() > pageSize) {
+            return new Page<>(rows.subList(0, pageSize), true);
+        }
+        return new Page<>(rows, false);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public T getLast() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,168 @@
+package DAO;
+
+import db.DatabaseConnection;
+import models.Product;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of products by id. Entries expire ttlMillis after they were
+ * loaded and the least recently used one is evicted beyond maxEntries. Concurrent
+ * misses for the same id share one load, and invalidating an id also discards a load
+ * still in flight for it, so a read that raced a write is never cached. Products are
+ * mutable, so callers always get their own copy.
+ *
+ * The shared instance used by ProductDAO is sized by db.cache.products.maxEntries and
+ * db.cache.products.ttlMillis; a maxEntries of 0 disables it.
+ */
+public class ProductCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_TTL_MILLIS = 60_000L;
+
+    private static volatile ProductCache shared;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    // Both maps are guarded by this
+    private final Map<Integer, CompletableFuture<Product>> loading = new HashMap<>();
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() <= maxEntries) {
+                return false;
+            }
+            evictions.incrementAndGet();
+            return true;
+        }
+    };
+
+    public ProductCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    ProductCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public static ProductCache shared() {
+        ProductCache current = shared;
+        if (current == null) {
+            synchronized (ProductCache.class) {
+                current = shared;
+                if (current == null) {
+                    Properties settings = DatabaseConnection.getSettings();
+                    current = new ProductCache(
+                            Integer.parseInt(settings.getProperty("db.cache.products.maxEntries", String.valueOf(DEFAULT_MAX_ENTRIES)).trim()),
+                            Long.parseLong(settings.getProperty("db.cache.products.ttlMillis", String.valueOf(DEFAULT_TTL_MILLIS)).trim()));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Returns the cached product or loads it with loader; null results are not cached
+    public Product get(int id, IntFunction<Product> loader) {
+        if (maxEntries == 0) {
+            misses.incrementAndGet();
+            loads.incrementAndGet();
+            return loader.apply(id);
+        }
+        CompletableFuture<Product> flight;
+        boolean owner = false;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (entry.expiresAt > clock.getAsLong()) {
+                    hits.incrementAndGet();
+                    return copy(entry.product);
+                }
+                entries.remove(id);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            flight = loading.get(id);
+            if (flight == null) {
+                flight = new CompletableFuture<>();
+                loading.put(id, flight);
+                owner = true;
+            }
+        }
+        if (!owner) {
+            Product product = flight.join();
+            return product == null ? null : copy(product);
+        }
+
+        Product product;
+        loads.incrementAndGet();
+        try {
+            product = loader.apply(id);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loading.remove(id, flight);
+            }
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        Product cached = product == null ? null : copy(product);
+        synchronized (this) {
+            // Not ours any more if the id was invalidated while loading
+            if (loading.remove(id, flight) && cached != null) {
+                entries.put(id, new Entry(cached, clock.getAsLong() + ttlMillis));
+            }
+        }
+        flight.complete(cached);
+        return product;
+    }
+
+    public synchronized void invalidate(int id) {
+        entries.remove(id);
+        loading.remove(id);
+    }
+
+    public synchronized void invalidateAll(Collection<Integer> ids) {
+        for (int id : ids) {
+            invalidate(id);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        loading.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(entries.size(), maxEntries, hits.get(), misses.get(), loads.get(),
+                evictions.get(), expirations.get());
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getPrice(),
+                product.getCategoryId(), product.getStock());
+    }
+
+    private static class Entry {
+        final Product product;
+        final long expiresAt;
+
+        Entry(Product product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,21 +1,52 @@
 package DAO;
 
 import models.Product;
+import models.ProductTile;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class ProductDAO extends BaseDAO {
+    // Rows sent per executeBatch by createProducts/updateProducts/upsertProducts
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
     private static final String INSERT_PRODUCT = """
         INSERT INTO Products(name, price, category_id, stock) 
         VALUES (?, ?, ?, ?)""";
 
+    private static final String UPSERT_PRODUCT = """
+        INSERT INTO Products(id, name, price, category_id, stock)
+        VALUES (?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE name = VALUES(name), price = VALUES(price),
+            category_id = VALUES(category_id), stock = VALUES(stock)""";
+
     private static final String FIND_BY_CATEGORY = """
         SELECT * FROM Products WHERE category_id = ?""";
 
     private static final String FIND_BY_ID = """
         SELECT * FROM Products WHERE id = ?""";
 
+    private static final String FIND_PAGE = """
+        SELECT * FROM Products WHERE id > ? ORDER BY id LIMIT ?""";
+
+    private static final String FIND_PAGE_BY_CATEGORY = """
+        SELECT * FROM Products WHERE category_id = ? AND id > ? ORDER BY id LIMIT ?""";
+
+    // Tile pages select only the columns a catalog tile shows
+    private static final String FIND_TILE_PAGE = """
+        SELECT id, name, price, stock FROM Products WHERE id > ? ORDER BY id LIMIT ?""";
+
+    private static final String FIND_TILE_PAGE_BY_CATEGORY = """
+        SELECT id, name, price, stock FROM Products WHERE category_id = ? AND id > ? ORDER BY id LIMIT ?""";
+
+    private static final String EXPORT_PRODUCTS = """
+        SELECT id, name, price, category_id, stock FROM Products ORDER BY id""";
+
     private static final String UPDATE_STOCK = """
         UPDATE Products SET stock = stock - ? WHERE id = ?""";
 
@@ -25,8 +56,19 @@ public class ProductDAO extends BaseDAO {
     private static final String DELETE_PRODUCT = """
         DELETE FROM Products WHERE id = ?""";
 
+    private ProductCache cache = ProductCache.shared();
+
+    public void setCache(ProductCache cache) {
+        this.cache = cache;
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
     public int createProduct(Product product) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT_PRODUCT,
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_PRODUCT,
                 Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, product.getName());
@@ -34,11 +76,13 @@ public class ProductDAO extends BaseDAO {
             stmt.setInt(3, product.getCategoryId());
             stmt.setInt(4, product.getStock());
 
-            stmt.executeUpdate();
+            executeWrite(stmt);
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    int id = rs.getInt(1);
+                    CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.PRODUCT, id);
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -47,16 +91,153 @@ public class ProductDAO extends BaseDAO {
         return -1;
     }
 
+    /**
+     * Inserts all products in one transaction, batchSize rows per round trip, and
+     * returns their generated ids in list order, which are also set on each product
+     * once committed. Returns an empty list if anything fails, in which case nothing
+     * is inserted.
+     */
+    public List<Integer> createProducts(List<Product> products) {
+        return createProducts(products, DEFAULT_BATCH_SIZE);
+    }
+
+    public List<Integer> createProducts(List<Product> products, int batchSize) {
+        requireBatchSize(batchSize);
+        try {
+            return inTransaction(conn -> {
+                List<Integer> ids = new ArrayList<>(products.size());
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int start = 0; start < products.size(); start += batchSize) {
+                        List<Product> chunk = products.subList(start, Math.min(start + batchSize, products.size()));
+                        for (Product product : chunk) {
+                            stmt.setString(1, product.getName());
+                            stmt.setDouble(2, product.getPrice());
+                            stmt.setInt(3, product.getCategoryId());
+                            stmt.setInt(4, product.getStock());
+                            stmt.addBatch();
+                        }
+                        executeWriteBatch(stmt);
+                        try (ResultSet rs = stmt.getGeneratedKeys()) {
+                            for (Product product : chunk) {
+                                if (!rs.next()) {
+                                    throw new SQLException("Missing generated key for product " + product.getName());
+                                }
+                                ids.add(rs.getInt(1));
+                            }
+                        }
+                    }
+                }
+                CatalogChangeLog.record(conn, CatalogChangeLog.PRODUCT, ids);
+                // Not before the commit, so a rolled-back insert leaves no ids behind
+                TransactionTemplate.afterCommit(() -> {
+                    for (int i = 0; i < products.size(); i++) {
+                        products.get(i).setId(ids.get(i));
+                    }
+                });
+                return ids;
+            });
+        } catch (SQLException e) {
+            System.out.println("ERROR CREATING PRODUCTS: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // Updates all products in one transaction, batchSize rows per round trip
+    public boolean updateProducts(List<Product> products) {
+        return updateProducts(products, DEFAULT_BATCH_SIZE);
+    }
+
+    public boolean updateProducts(List<Product> products, int batchSize) {
+        requireBatchSize(batchSize);
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_PRODUCT)) {
+                    for (int start = 0; start < products.size(); start += batchSize) {
+                        List<Product> chunk = products.subList(start, Math.min(start + batchSize, products.size()));
+                        for (Product product : chunk) {
+                            stmt.setString(1, product.getName());
+                            stmt.setDouble(2, product.getPrice());
+                            stmt.setInt(3, product.getCategoryId());
+                            stmt.setInt(4, product.getStock());
+                            stmt.setInt(5, product.getId());
+                            stmt.addBatch();
+                        }
+                        for (int result : executeWriteBatch(stmt)) {
+                            // SUCCESS_NO_INFO is what rewritten MySQL batches report
+                            if (result == 0 || result == Statement.EXECUTE_FAILED) {
+                                TransactionTemplate.setRollbackOnly();
+                                return false;
+                            }
+                        }
+                    }
+                }
+                List<Integer> ids = new ArrayList<>(products.size());
+                products.forEach(product -> ids.add(product.getId()));
+                CatalogChangeLog.record(conn, CatalogChangeLog.PRODUCT, ids);
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            for (Product product : products) {
+                invalidateAfterCommit(product.getId());
+            }
+        }
+    }
+
+    /**
+     * Updates the products whose id exists and inserts the others under their own id,
+     * all in one transaction, batchSize rows per round trip. Returns false if anything
+     * fails, in which case nothing is written.
+     */
+    public boolean upsertProducts(List<Product> products, int batchSize) {
+        requireBatchSize(batchSize);
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(UPSERT_PRODUCT)) {
+                    for (int start = 0; start < products.size(); start += batchSize) {
+                        List<Product> chunk = products.subList(start, Math.min(start + batchSize, products.size()));
+                        for (Product product : chunk) {
+                            stmt.setInt(1, product.getId());
+                            stmt.setString(2, product.getName());
+                            stmt.setDouble(3, product.getPrice());
+                            stmt.setInt(4, product.getCategoryId());
+                            stmt.setInt(5, product.getStock());
+                            stmt.addBatch();
+                        }
+                        for (int result : executeWriteBatch(stmt)) {
+                            if (result == Statement.EXECUTE_FAILED) {
+                                TransactionTemplate.setRollbackOnly();
+                                return false;
+                            }
+                        }
+                    }
+                }
+                List<Integer> ids = new ArrayList<>(products.size());
+                products.forEach(product -> ids.add(product.getId()));
+                CatalogChangeLog.record(conn, CatalogChangeLog.PRODUCT, ids);
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            for (Product product : products) {
+                invalidateAfterCommit(product.getId());
+            }
+        }
+    }
+
     public List<Product> findByCategory(int categoryId) {
         List<Product> products = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_CATEGORY)) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_CATEGORY)) {
             stmt.setInt(1, categoryId);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    products.add(mapResultSetToProduct(rs));
-                }
+                products.addAll(mapAll(rs, RowMappers.PRODUCT));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -64,8 +245,20 @@ public class ProductDAO extends BaseDAO {
         return products;
     }
 
+    /**
+     * Served from the product cache, except on a pinned connection or inside a
+     * transaction, which may see rows other connections cannot yet see.
+     */
     public Product findById(int id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        if (connection != null || TransactionTemplate.isActive()) {
+            return loadById(id);
+        }
+        return cache.get(id, this::loadById);
+    }
+
+    private Product loadById(int id) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -79,30 +272,90 @@ public class ProductDAO extends BaseDAO {
         return null;
     }
 
+    // The products with these ids in id order, skipping ids with no product; null if the query failed
+    public List<Product> findByIds(Collection<Integer> ids) {
+        List<Integer> sorted = new ArrayList<>(new TreeSet<>(ids));
+        List<Product> products = new ArrayList<>();
+        try (Connection conn = borrowReadConnection()) {
+            for (int from = 0; from < sorted.size(); from += DEFAULT_BATCH_SIZE) {
+                List<Integer> chunk = sorted.subList(from, Math.min(from + DEFAULT_BATCH_SIZE, sorted.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String sql = "SELECT * FROM Products WHERE id IN (" + placeholders + ") ORDER BY id";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    setParameters(stmt, chunk.toArray());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        products.addAll(mapAll(rs, RowMappers.PRODUCT));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return products;
+    }
+
     public List<Product> findAll() {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT * FROM Products";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                products.add(mapResultSetToProduct(rs));
-            }
+            products.addAll(mapAll(rs, RowMappers.PRODUCT));
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return products;
     }
 
+    // Keyset pages in id order; pass 0 for the first page, then the last id seen
+    public Page<Product> findPage(int afterId, int pageSize) {
+        return queryPage(FIND_PAGE, pageSize, RowMappers.PRODUCT, afterId);
+    }
+
+    public Page<Product> findPageByCategory(int categoryId, int afterId, int pageSize) {
+        return queryPage(FIND_PAGE_BY_CATEGORY, pageSize, RowMappers.PRODUCT, categoryId, afterId);
+    }
+
+    // Same paging as findPage, projected to the catalog tile columns
+    public Page<ProductTile> findTilePage(int afterId, int pageSize) {
+        return queryPage(FIND_TILE_PAGE, pageSize, RowMappers.PRODUCT_TILE, afterId);
+    }
+
+    public Page<ProductTile> findTilePageByCategory(int categoryId, int afterId, int pageSize) {
+        return queryPage(FIND_TILE_PAGE_BY_CATEGORY, pageSize, RowMappers.PRODUCT_TILE, categoryId, afterId);
+    }
+
+    // Constant-memory alternative to findAll in id order, for exports and reports; close the stream when done
+    public Stream<Product> streamAll() {
+        return streamAll(DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Product> streamAll(int fetchSize) {
+        return streamQuery("SELECT * FROM Products ORDER BY id", fetchSize, RowMappers.PRODUCT);
+    }
+
+    // Writes every product to sink straight from the cursor; returns the row count or -1
+    public long exportProducts(RowSink sink) {
+        return exportQuery(EXPORT_PRODUCTS, sink);
+    }
+
     public boolean updateProduct(Product product) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_PRODUCT)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_PRODUCT)) {
             stmt.setString(1, product.getName());
             stmt.setDouble(2, product.getPrice());
             stmt.setInt(3, product.getCategoryId());
             stmt.setInt(4, product.getStock());
             stmt.setInt(5, product.getId());
-            return stmt.executeUpdate() > 0;
+            boolean updated = executeWrite(stmt) > 0;
+            if (updated) {
+                CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.PRODUCT, product.getId());
+            }
+            invalidateAfterCommit(product.getId());
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -110,33 +363,99 @@ public class ProductDAO extends BaseDAO {
     }
 
     public boolean deleteProduct(int productId) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE_PRODUCT)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_PRODUCT)) {
             stmt.setInt(1, productId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = executeWrite(stmt) > 0;
+            if (deleted) {
+                CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.PRODUCT, productId);
+            }
+            invalidateAfterCommit(productId);
+            return deleted;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    private static void requireBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+    }
+
+    // Inside a transaction a concurrent read could otherwise cache the row as it was until the commit
+    private void invalidateAfterCommit(int productId) {
+        TransactionTemplate.afterCommit(() -> cache.invalidate(productId));
+    }
+
     Product mapResultSetToProduct(ResultSet rs) throws SQLException {
-        return new Product(
-                rs.getInt("id"),
-                rs.getString("name"),
-                rs.getDouble("price"),
-                rs.getInt("category_id"),
-                rs.getInt("stock")
-        );
+        return RowMappers.PRODUCT.mapRow(rs);
     }
 
     public boolean updateStock(int productId, int quantity) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_STOCK)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STOCK)) {
             stmt.setInt(1, quantity);
             stmt.setInt(2, productId);
-            return stmt.executeUpdate() > 0;
+            boolean updated = executeWrite(stmt) > 0;
+            if (updated) {
+                CatalogChangeLog.recordQuietly(conn, CatalogChangeLog.PRODUCT, productId);
+            }
+            invalidateAfterCommit(productId);
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
+
+    // Asynchronous variants, run on DatabaseExecutor
+    public CompletableFuture<List<Product>> findAllAsync() {
+        return async(this::findAll);
+    }
+
+    public CompletableFuture<List<Product>> findByCategoryAsync(int categoryId) {
+        return async(() -> findByCategory(categoryId));
+    }
+
+    public CompletableFuture<Page<Product>> findPageAsync(int afterId, int pageSize) {
+        return async(() -> findPage(afterId, pageSize));
+    }
+
+    public CompletableFuture<Page<Product>> findPageByCategoryAsync(int categoryId, int afterId, int pageSize) {
+        return async(() -> findPageByCategory(categoryId, afterId, pageSize));
+    }
+
+    public CompletableFuture<Page<ProductTile>> findTilePageAsync(int afterId, int pageSize) {
+        return async(() -> findTilePage(afterId, pageSize));
+    }
+
+    public CompletableFuture<Page<ProductTile>> findTilePageByCategoryAsync(int categoryId, int afterId, int pageSize) {
+        return async(() -> findTilePageByCategory(categoryId, afterId, pageSize));
+    }
+
+    public CompletableFuture<Product> findByIdAsync(int id) {
+        return async(() -> findById(id));
+    }
+
+    public CompletableFuture<Integer> createProductAsync(Product product) {
+        return async(() -> createProduct(product));
+    }
+
+    public CompletableFuture<List<Integer>> createProductsAsync(List<Product> products) {
+        return async(() -> createProducts(products));
+    }
+
+    public CompletableFuture<Boolean> updateProductsAsync(List<Product> products) {
+        return async(() -> updateProducts(products));
+    }
+
+    public CompletableFuture<Boolean> updateProductAsync(Product product) {
+        return async(() -> updateProduct(product));
+    }
+
+    public CompletableFuture<Boolean> deleteProductAsync(int productId) {
+        return async(() -> deleteProduct(productId));
+    }
 }
@@ -0,0 +1,113 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily maps a forward-only, read-only result set into a Stream, one row at a time.
+ * The statement and connection are released when the stream is closed or fully
+ * consumed, so callers should use it in try-with-resources.
+ *
+ * MySQL only streams rows when the fetch size is Integer.MIN_VALUE; it then buffers
+ * nothing, but the connection cannot run other statements until the stream is closed.
+ */
+final class ResultSetStream {
+
+    private ResultSetStream() {
+    }
+
+    static <T> Stream<T> open(Connection conn, String sql, int fetchSize, RowMapper<T> mapper,
+                              Object... params) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = prepare(conn, sql, fetchSize, params);
+            Cursor<T> cursor = new Cursor<>(conn, stmt, stmt.executeQuery(), mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                if (stmt != null) stmt.close();
+                conn.close();
+            } catch (SQLException ex) { /* Log error */ }
+            throw e;
+        }
+    }
+
+    // Forward-only, read-only statement set up to stream its rows rather than buffer them
+    static PreparedStatement prepare(Connection conn, String sql, int fetchSize, Object... params)
+            throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(isMySql(conn) ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    private static boolean isMySql(Connection conn) throws SQLException {
+        return "MySQL".equals(conn.getMetaData().getDatabaseProductName());
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private RowMapper<T> mapper;
+        private boolean bound;
+        private boolean closed;
+
+        private Cursor(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                if (!bound) {
+                    mapper = mapper.bind(rs);
+                    bound = true;
+                }
+                action.accept(mapper.mapRow(rs));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Error reading result set", e);
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try { rs.close(); }
+            catch (SQLException ex) { /* Log error */ }
+            try { stmt.close(); }
+            catch (SQLException ex) { /* Log error */ }
+            try { conn.close(); }
+            catch (SQLException ex) { /* Log error */ }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package DAO;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet rs) throws SQLException;
+
+    /**
+     * Returns a mapper specialised to this result set, to be reused for all of its
+     * rows. Mappers that read columns by name resolve the names to indices here, once
+     * per query instead of once per row.
+     */
+    default RowMapper<T> bind(ResultSet rs) throws SQLException {
+        return this;
+    }
+}
@@ -0,0 +1,195 @@
+package DAO;
+
+import DAO.Columns.Column;
+import models.CartItem;
+import models.CartSummary;
+import models.Category;
+import models.Order;
+import models.OrderItem;
+import models.OrderStatus;
+import models.OrderSummary;
+import models.Product;
+import models.ProductTile;
+import models.User;
+import models.UserRole;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Shared, stateless mappers for the model classes. Each one resolves its columns once
+ * per result set in bind(); calling mapRow directly resolves them for that row only,
+ * which is fine for single-row lookups.
+ */
+public final class RowMappers {
+    public static final RowMapper<Product> PRODUCT = indexed(RowMappers::product);
+    public static final RowMapper<Category> CATEGORY = indexed(RowMappers::category);
+    public static final RowMapper<Order> ORDER = indexed(RowMappers::order);
+    public static final RowMapper<User> USER = indexed(RowMappers::user);
+    public static final RowMapper<OrderItem> ORDER_HISTORY_ITEM = indexed(RowMappers::orderHistoryItem);
+    public static final RowMapper<ProductTile> PRODUCT_TILE = indexed(RowMappers::productTile);
+    public static final RowMapper<OrderSummary> ORDER_SUMMARY = indexed(RowMappers::orderSummary);
+    public static final RowMapper<CartSummary> CART_SUMMARY = indexed(RowMappers::cartSummary);
+
+    private RowMappers() {
+    }
+
+    // Product columns plus the cart quantity
+    public static RowMapper<CartItem> cartItem(int userId) {
+        return indexed(columns -> {
+            RowMapper<Product> product = product(columns);
+            Column quantity = columns.get("quantity");
+            return rs -> new CartItem(userId, product.mapRow(rs), quantity.getInt(rs));
+        });
+    }
+
+    // Product columns plus the ordered quantity and unit price
+    public static RowMapper<OrderItem> orderItem(int orderId) {
+        return indexed(columns -> {
+            RowMapper<Product> product = product(columns);
+            Column quantity = columns.get("quantity");
+            Column price = columns.get("price");
+            return rs -> new OrderItem(orderId, product.mapRow(rs), quantity.getInt(rs), price.getDouble(rs));
+        });
+    }
+
+    /**
+     * An item row of the order history join, where product columns are aliased as
+     * product_id, product_name and product_price next to the order's own columns.
+     * Maps to null for an order without items (all item columns NULL).
+     */
+    private static RowMapper<OrderItem> orderHistoryItem(Columns columns) {
+        Column orderId = columns.get("id");
+        Column productId = columns.get("product_id");
+        Column productName = columns.get("product_name");
+        Column productPrice = columns.get("product_price");
+        Column categoryId = columns.get("category_id");
+        Column stock = columns.get("stock");
+        Column quantity = columns.get("quantity");
+        Column itemPrice = columns.get("item_price");
+        return rs -> {
+            int id = productId.getInt(rs);
+            if (rs.wasNull()) {
+                return null;
+            }
+            Product product = new Product(id, productName.getString(rs), productPrice.getDouble(rs),
+                    categoryId.getInt(rs), stock.getInt(rs));
+            return new OrderItem(orderId.getInt(rs), product, quantity.getInt(rs), itemPrice.getDouble(rs));
+        };
+    }
+
+    private static RowMapper<Product> product(Columns columns) {
+        Column id = columns.get("id");
+        Column name = columns.get("name");
+        Column price = columns.get("price");
+        Column categoryId = columns.get("category_id");
+        Column stock = columns.get("stock");
+        return rs -> new Product(
+                id.getInt(rs),
+                name.getString(rs),
+                price.getDouble(rs),
+                categoryId.getInt(rs),
+                stock.getInt(rs)
+        );
+    }
+
+    private static RowMapper<ProductTile> productTile(Columns columns) {
+        Column id = columns.get("id");
+        Column name = columns.get("name");
+        Column price = columns.get("price");
+        Column stock = columns.get("stock");
+        return rs -> new ProductTile(
+                id.getInt(rs),
+                name.getString(rs),
+                price.getDouble(rs),
+                stock.getInt(rs)
+        );
+    }
+
+    private static RowMapper<Category> category(Columns columns) {
+        Column id = columns.get("id");
+        Column name = columns.get("name");
+        Column adminId = columns.get("admin_id");
+        return rs -> new Category(
+                id.getInt(rs),
+                name.getString(rs),
+                adminId.getInt(rs)
+        );
+    }
+
+    private static RowMapper<Order> order(Columns columns) {
+        Column id = columns.get("id");
+        Column userId = columns.get("user_id");
+        Column orderDate = columns.get("order_date");
+        Column total = columns.get("total");
+        Column status = columns.get("status");
+        return rs -> new Order(
+                id.getInt(rs),
+                userId.getInt(rs),
+                orderDate.getTimestamp(rs).toLocalDateTime(),
+                total.getDouble(rs),
+                OrderStatus.valueOf(status.getString(rs))
+        );
+    }
+
+    private static RowMapper<OrderSummary> orderSummary(Columns columns) {
+        Column id = columns.get("id");
+        Column total = columns.get("total");
+        Column orderDate = columns.get("order_date");
+        Column status = columns.get("status");
+        return rs -> new OrderSummary(
+                id.getInt(rs),
+                total.getDouble(rs),
+                orderDate.getTimestamp(rs).toLocalDateTime(),
+                OrderStatus.valueOf(status.getString(rs))
+        );
+    }
+
+    private static RowMapper<CartSummary> cartSummary(Columns columns) {
+        Column itemCount = columns.get("item_count");
+        Column lineCount = columns.get("line_count");
+        Column total = columns.get("total");
+        return rs -> new CartSummary(
+                itemCount.getInt(rs),
+                lineCount.getInt(rs),
+                total.getDouble(rs)
+        );
+    }
+
+    private static RowMapper<User> user(Columns columns) {
+        Column id = columns.get("id");
+        Column username = columns.get("username");
+        Column password = columns.get("password");
+        Column email = columns.get("email");
+        Column address = columns.get("address");
+        Column profilePic = columns.get("profile_pic");
+        Column role = columns.get("role");
+        return rs -> new User(
+                id.getInt(rs),
+                username.getString(rs),
+                password.getString(rs),
+                email.getString(rs),
+                address.getString(rs),
+                profilePic.getString(rs),
+                UserRole.valueOf(role.getString(rs))
+        );
+    }
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        RowMapper<T> bind(Columns columns) throws SQLException;
+    }
+
+    private static <T> RowMapper<T> indexed(Binder<T> binder) {
+        return new RowMapper<>() {
+            @Override
+            public T mapRow(ResultSet rs) throws SQLException {
+                return bind(rs).mapRow(rs);
+            }
+
+            @Override
+            public RowMapper<T> bind(ResultSet rs) throws SQLException {
+                return binder.bind(Columns.of(rs));
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package DAO;
+
+import java.io.IOException;
+
+/**
+ * Receives the raw rows of an export query, so large tables can be written out
+ * without mapping each row to a model object. The values array is reused from
+ * row to row; a SQL NULL arrives as null.
+ */
+public interface RowSink {
+    void start(String[] columns, boolean[] numeric) throws IOException;
+
+    void row(String[] values) throws IOException;
+}
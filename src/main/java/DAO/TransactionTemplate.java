@@ -0,0 +1,201 @@
+package DAO;
+
+import db.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a unit of work on one connection and commits once at the end. While the work
+ * runs, the connection is bound to the current thread and every DAO joins it, so a
+ * checkout or admin operation spanning several DAOs shares one transaction without
+ * wiring connections by hand. Nested execute() calls join the outer transaction.
+ *
+ * DAO methods report failures through their return values, so work that detects a
+ * failed step should call {@link #setRollbackOnly()}. An SQLException thrown out of
+ * the work rolls back too, and is retried when it is a deadlock.
+ */
+public class TransactionTemplate {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final ConnectionSource connectionSource;
+    private int isolationLevel = -1;
+    private int maxRetries = 3;
+    private long retryBackoffMillis = 50;
+
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    public TransactionTemplate() {
+        this(() -> DatabaseConnection.getRouter().borrowPrimary());
+    }
+
+    public TransactionTemplate(ConnectionSource connectionSource) {
+        this.connectionSource = connectionSource;
+    }
+
+    // One of the Connection.TRANSACTION_* constants; -1 keeps the connection's default
+    public void setIsolationLevel(int isolationLevel) {
+        this.isolationLevel = isolationLevel;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    public <T> T execute(TransactionCallback<T> callback) throws SQLException {
+        Scope outer = CURRENT.get();
+        if (outer != null) {
+            return callback.doInTransaction(outer.connection);
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return executeOnce(callback);
+            } catch (SQLException e) {
+                if (attempt >= maxRetries || !isDeadlock(e)) {
+                    throw e;
+                }
+                System.out.println("Deadlock detected, retrying transaction (attempt " + (attempt + 2) + ")");
+                backoff(attempt);
+            }
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static Connection currentConnection() {
+        Scope scope = CURRENT.get();
+        return scope == null ? null : scope.connection;
+    }
+
+    // Makes the surrounding transaction roll back instead of committing
+    public static void setRollbackOnly() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.rollbackOnly = true;
+        }
+    }
+
+    public static boolean isRollbackOnly() {
+        Scope scope = CURRENT.get();
+        return scope != null && scope.rollbackOnly;
+    }
+
+    // Runs action once the surrounding transaction commits, or right away outside one; dropped on rollback
+    public static void afterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Records that rows were changed, so reads stay on the primary for the router's
+     * read-your-writes window. Inside a transaction the window starts at commit, and
+     * not at all on rollback.
+     */
+    public static void markWrite() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.wrote = true;
+        } else {
+            DatabaseConnection.getRouter().markWrite();
+        }
+    }
+
+    static boolean isDeadlock(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            // 40001 is the standard serialization failure state; 1213 is MySQL's deadlock code
+            if (current instanceof SQLException sql
+                    && ("40001".equals(sql.getSQLState()) || sql.getErrorCode() == 1213)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> T executeOnce(TransactionCallback<T> callback) throws SQLException {
+        Connection conn = connectionSource.get();
+        Scope scope = new Scope(conn);
+        boolean originalAutoCommit = true;
+        int originalIsolation = -1;
+        try {
+            originalAutoCommit = conn.getAutoCommit();
+            if (isolationLevel != -1) {
+                originalIsolation = conn.getTransactionIsolation();
+                conn.setTransactionIsolation(isolationLevel);
+            }
+            conn.setAutoCommit(false);
+            CURRENT.set(scope);
+
+            T result = callback.doInTransaction(conn);
+            if (scope.rollbackOnly) {
+                conn.rollback();
+            } else {
+                conn.commit();
+                if (scope.wrote) {
+                    DatabaseConnection.getRouter().markWrite();
+                }
+                runAfterCommit(scope);
+            }
+            return result;
+        } catch (Throwable e) {
+            // Any failure, Errors included: restoring autocommit below would otherwise commit the partial work
+            try { conn.rollback(); }
+            catch (SQLException ex) { /* Log error */ }
+            throw e;
+        } finally {
+            CURRENT.remove();
+            try { conn.setAutoCommit(originalAutoCommit); }
+            catch (SQLException ex) { /* Log error */ }
+            if (originalIsolation != -1) {
+                try { conn.setTransactionIsolation(originalIsolation); }
+                catch (SQLException ex) { /* Log error */ }
+            }
+            try { conn.close(); }
+            catch (SQLException ex) { /* Log error */ }
+        }
+    }
+
+    // Committed already, so a failing action is only logged
+    private static void runAfterCommit(Scope scope) {
+        for (Runnable action : scope.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void backoff(int attempt) throws SQLException {
+        try {
+            Thread.sleep(retryBackoffMillis * (attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying transaction", e);
+        }
+    }
+
+    private static final class Scope {
+        private final Connection connection;
+        private boolean rollbackOnly;
+        private boolean wrote;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+
+        private Scope(Connection connection) {
+            this.connection = connection;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package DAO;
 
 import models.User;
-import models.UserRole;
-import org.mindrot.jbcrypt.BCrypt;
+import util.PasswordHasher;
 import java.sql.*;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class UserDAO extends BaseDAO {
 
@@ -22,16 +23,17 @@ public class UserDAO extends BaseDAO {
         DELETE FROM Users WHERE id=?""";
 
     public boolean createUser(User user) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, user.getUsername());
-            stmt.setString(2, BCrypt.hashpw(user.getPassword(), BCrypt.gensalt()));
+            stmt.setString(2, PasswordHasher.hash(user.getPassword()));
             stmt.setString(3, user.getEmail());
             stmt.setString(4, user.getAddress());
             stmt.setString(5, user.getProfilePic());
             stmt.setString(6, user.getRole().toString());
             int affectedRows;
             try {
-                affectedRows = stmt.executeUpdate();
+                affectedRows = executeWrite(stmt);
             }catch (SQLException e){
                 affectedRows = 0;
                 System.out.println("ERROR CREATING USER");
@@ -51,11 +53,12 @@ public class UserDAO extends BaseDAO {
     }
 
     public User findByUsername(String username) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_USERNAME)) {
+        try (Connection conn = borrowReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_USERNAME)) {
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToUser(rs);
+                    return RowMappers.USER.mapRow(rs);
                 }
             }
         } catch (SQLException e) {
@@ -64,25 +67,15 @@ public class UserDAO extends BaseDAO {
         return null;
     }
 
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        return new User(
-                rs.getInt("id"),
-                rs.getString("username"),
-                rs.getString("password"),
-                rs.getString("email"),
-                rs.getString("address"),
-                rs.getString("profile_pic"),
-                UserRole.valueOf(rs.getString("role"))
-        );
-    }
 
     public boolean updateUser(User user) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_USER)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_USER)) {
             stmt.setString(1, user.getEmail());
             stmt.setString(2, user.getAddress());
             stmt.setString(3, user.getProfilePic());
             stmt.setInt(4, user.getId());
-            return stmt.executeUpdate() > 0;
+            return executeWrite(stmt) > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -90,9 +83,10 @@ public class UserDAO extends BaseDAO {
     }
 
     public boolean deleteUser(int userId) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE_USER)) {
+        try (Connection conn = borrowConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_USER)) {
             stmt.setInt(1, userId);
-            return stmt.executeUpdate() > 0;
+            return executeWrite(stmt) > 0;
         } catch (SQLException e) {
             // Check if the error message indicates a foreign key constraint failure
             if (e.getMessage().toLowerCase().contains("foreign key") || e.getMessage().toLowerCase().contains("constraint fails")) {
@@ -104,8 +98,45 @@ public class UserDAO extends BaseDAO {
         }
     }
 
-    public boolean validateCredentials(String username, String password) {
+    // One lookup by username, then the BCrypt check; empty if either fails
+    public Optional<User> authenticate(String username, String password) {
         User user = findByUsername(username);
-        return user != null && BCrypt.checkpw(password, user.getPassword());
+        if (user != null && PasswordHasher.verify(password, user.getPassword())) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+
+    public boolean validateCredentials(String username, String password) {
+        return authenticate(username, password).isPresent();
+    }
+
+    // Asynchronous variants, run on DatabaseExecutor
+    public CompletableFuture<Boolean> createUserAsync(User user) {
+        return async(() -> createUser(user));
+    }
+
+    public CompletableFuture<User> findByUsernameAsync(String username) {
+        return async(() -> findByUsername(username));
+    }
+
+    public CompletableFuture<Boolean> updateUserAsync(User user) {
+        return async(() -> updateUser(user));
+    }
+
+    /**
+     * The lookup runs on DatabaseExecutor and the BCrypt check on PasswordHasher's
+     * pool, so a database worker is never held for the hash. Fails with
+     * RejectedExecutionException when the hashing pool is saturated.
+     */
+    public CompletableFuture<Optional<User>> authenticateAsync(String username, String password) {
+        return async(() -> findByUsername(username)).thenCompose(user -> user == null
+                ? CompletableFuture.completedFuture(Optional.<User>empty())
+                : PasswordHasher.verifyAsync(password, user.getPassword())
+                        .thenApply(valid -> valid ? Optional.of(user) : Optional.<User>empty()));
+    }
+
+    public CompletableFuture<Boolean> validateCredentialsAsync(String username, String password) {
+        return async(() -> validateCredentials(username, password));
     }
-}
\ No newline at end of file
+}
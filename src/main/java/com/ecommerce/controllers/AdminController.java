@@ -1,7 +1,10 @@
 package com.ecommerce.controllers;
 
 import DAO.CategoryDAO;
+import DAO.Page;
 import DAO.ProductDAO;
+import db.SessionContext;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -10,14 +13,22 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import models.Category;
+import models.OrderStatus;
 import models.Product;
+import models.User;
+import util.CatalogImporter;
+import util.DataExport;
 import util.SceneNavigator;
 
+import java.io.File;
 import java.net.URL;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 public class AdminController implements Initializable {
 
@@ -29,6 +40,10 @@ public class AdminController implements Initializable {
     @FXML private TableColumn<Product, Double> productPriceCol;
     @FXML private TableColumn<Product, Integer> productStockCol;
     @FXML private TableColumn<Product, Void> productActionsCol;
+    @FXML private Button loadMoreProductsButton;
+    @FXML private Button importCatalogButton;
+    @FXML private ProgressBar importProgressBar;
+    @FXML private Label importStatusLabel;
 
     // FXML Elements for the Categories Tab
     @FXML private TableView<Category> categoriesTable;
@@ -40,12 +55,18 @@ public class AdminController implements Initializable {
     private ProductDAO productDAO = new ProductDAO();
     private CategoryDAO categoryDAO = new CategoryDAO();
 
+    private static final int PAGE_SIZE = 50;
+    // Keyset paging state for the products table; null filter means all categories
+    private Integer productCategoryFilter;
+    private int lastProductId;
+    private CompletableFuture<Page<Product>> pendingProducts;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         setupProductTable();
         setupCategoryTable();
+        // Categories and products load concurrently on the database executor
         loadCategories();
-        loadCategoryFilter();
         loadProducts();
 
         categoryFilterCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
@@ -195,14 +216,12 @@ public class AdminController implements Initializable {
                             if (success) {
                                 showAlert(Alert.AlertType.INFORMATION, "Success", "Category deleted successfully.");
                                 loadCategories();
-                                loadCategoryFilter();
                             } else {
                                 showAlert(Alert.AlertType.WARNING,
                                         "Cannot delete category.",
                                         "This category has products associated with it.\nPlease delete those products first.");
                             }
                             loadCategories();
-                            loadCategoryFilter(); // update combo box too
                         }
                     });
                 });
@@ -254,7 +273,6 @@ public class AdminController implements Initializable {
                 Alert alert = new Alert(Alert.AlertType.INFORMATION, "Category updated.");
                 alert.showAndWait();
                 loadCategories();
-                loadCategoryFilter();
             } else {
                 new Alert(Alert.AlertType.ERROR, "Update failed.").showAndWait();
             }
@@ -265,30 +283,149 @@ public class AdminController implements Initializable {
 
     // ---------- Load Data ----------
     private void loadProductCategories(int CatID) {
-        // For demonstration, assuming we have a method in DAO to list all products.
-        // Replace with actual implementation.
-        List<Product> products = productDAO.findByCategory(CatID);
-        productsTable.setItems(FXCollections.observableArrayList(products));
+        productCategoryFilter = CatID;
+        reloadProductPages();
     }
 
     private void loadProducts() {
-        // For demonstration, assuming we have a method in DAO to list all products.
-        // Replace with actual implementation.
-        List<Product> products = productDAO.findAll();
-        productsTable.setItems(FXCollections.observableArrayList(products));
+        productCategoryFilter = null;
+        reloadProductPages();
     }
 
-    private void loadCategories() {
-        List<Category> categories = categoryDAO.findAll();
-        categoriesTable.setItems(FXCollections.observableArrayList(categories));
+    private void reloadProductPages() {
+        lastProductId = 0;
+        productsTable.setItems(FXCollections.observableArrayList());
+        loadNextProductPage();
     }
 
-    private void loadCategoryFilter() {
-        List<Category> categories = categoryDAO.findAll();
-        categoryFilterCombo.setItems(FXCollections.observableArrayList(categories));
+    private void loadNextProductPage() {
+        loadMoreProductsButton.setDisable(true);
+        CompletableFuture<Page<Product>> request = productCategoryFilter == null
+                ? productDAO.findPageAsync(lastProductId, PAGE_SIZE)
+                : productDAO.findPageByCategoryAsync(productCategoryFilter, lastProductId, PAGE_SIZE);
+        pendingProducts = request;
+        request.thenAccept(page -> Platform.runLater(() -> {
+            if (request != pendingProducts) {
+                return; // the table was reloaded while this page was loading
+            }
+            productsTable.getItems().addAll(page.getItems());
+            if (!page.isEmpty()) {
+                lastProductId = page.getLast().getId();
+            }
+            loadMoreProductsButton.setDisable(!page.hasNext());
+        }));
+    }
+
+    // The table and the filter combo share one read of the category snapshot
+    private void loadCategories() {
+        categoryDAO.getSnapshotAsync().thenAccept(snapshot -> Platform.runLater(() -> {
+            categoriesTable.setItems(FXCollections.observableArrayList(snapshot.getCategories()));
+            categoryFilterCombo.setItems(FXCollections.observableArrayList(snapshot.getCategories()));
+        }));
     }
 
     // ---------- Action Handlers ----------
+    @FXML
+    private void handleLoadMoreProducts() {
+        loadNextProductPage();
+    }
+
+    @FXML
+    private void handleImportCatalog() {
+        // Categories the import creates are attributed to the signed-in admin
+        User admin = SessionContext.getCurrentUser();
+        if (admin == null) {
+            showAlert(Alert.AlertType.ERROR, "Import Catalog", "Please log in again before importing.");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Catalog");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Catalog files", "*.csv", "*.ndjson", "*.jsonl"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(productsTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        CatalogImporter importer = new CatalogImporter(productDAO, categoryDAO, admin.getId());
+        importCatalogButton.setDisable(true);
+        importProgressBar.setManaged(true);
+        importProgressBar.setVisible(true);
+        importProgressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        importStatusLabel.setText("Importing " + file.getName() + "...");
+
+        importer.importFileAsync(file.toPath(), progress -> Platform.runLater(() -> showImportProgress(progress)))
+                .thenAccept(result -> Platform.runLater(() -> {
+                    showImportProgress(result);
+                    importCatalogButton.setDisable(false);
+                    importProgressBar.setManaged(false);
+                    importProgressBar.setVisible(false);
+                    loadProducts();
+                    loadCategories();
+                    if (result.getRejected() > 0) {
+                        showAlert(Alert.AlertType.WARNING, "Import finished with " + result.getRejected() + " rejected rows",
+                                String.join("\n", result.getErrors()));
+                    }
+                }));
+    }
+
+    @FXML
+    private void handleExport() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Export Data");
+        ButtonType exportButtonType = new ButtonType("Export", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(exportButtonType, ButtonType.CANCEL);
+
+        ComboBox<DataExport.Dataset> datasetCombo = new ComboBox<>(FXCollections.observableArrayList(DataExport.Dataset.values()));
+        datasetCombo.setValue(DataExport.Dataset.ORDERS);
+        DatePicker fromPicker = new DatePicker();
+        DatePicker toPicker = new DatePicker();
+        ComboBox<OrderStatus> statusCombo = new ComboBox<>(FXCollections.observableArrayList(OrderStatus.values()));
+        statusCombo.setPromptText("Any status");
+
+        VBox dialogVBox = new VBox(10, new Label("Data:"), datasetCombo,
+                new Label("Orders from (optional):"), fromPicker,
+                new Label("Orders before (optional):"), toPicker,
+                new Label("Order status (optional):"), statusCombo);
+        dialog.getDialogPane().setContent(dialogVBox);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != exportButtonType) {
+            return;
+        }
+
+        DataExport.Dataset dataset = datasetCombo.getValue();
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + dataset);
+        chooser.setInitialFileName(dataset + ".csv");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("NDJSON", "*.ndjson"),
+                new FileChooser.ExtensionFilter("Compressed", "*.csv.gz", "*.ndjson.gz"));
+        File file = chooser.showSaveDialog(productsTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        LocalDateTime from = fromPicker.getValue() == null ? null : fromPicker.getValue().atStartOfDay();
+        LocalDateTime to = toPicker.getValue() == null ? null : toPicker.getValue().atStartOfDay();
+        new DataExport().exportAsync(dataset, file.toPath(), from, to, statusCombo.getValue())
+                .thenAccept(rows -> Platform.runLater(() -> {
+                    if (rows >= 0) {
+                        new Alert(Alert.AlertType.INFORMATION, "Exported " + rows + " rows to " + file.getName()).showAndWait();
+                    } else {
+                        new Alert(Alert.AlertType.ERROR, "Export failed.").showAndWait();
+                    }
+                }));
+    }
+
+    private void showImportProgress(CatalogImporter.Progress progress) {
+        if (progress.getFraction() >= 0) {
+            importProgressBar.setProgress(progress.getFraction());
+        }
+        importStatusLabel.setText(progress.toString());
+    }
+
     @FXML
     private void handleProducts() {
         // Refresh product data if needed.
@@ -299,7 +436,8 @@ public class AdminController implements Initializable {
 
     @FXML
     private void handleCategories() {
-        // Refresh categories data if needed.
+        // Refresh categories data, picking up edits made from other sessions.
+        CategoryDAO.invalidateSnapshot();
         loadCategories();
     }
 
@@ -408,7 +546,6 @@ public class AdminController implements Initializable {
                 Alert alert = new Alert(Alert.AlertType.INFORMATION, "Category added successfully!");
                 alert.showAndWait();
                 loadCategories();
-                loadCategoryFilter();
             } else {
                 Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to add category.");
                 alert.showAndWait();
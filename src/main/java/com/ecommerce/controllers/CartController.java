@@ -1,27 +1,36 @@
 package com.ecommerce.controllers;
 
 import DAO.CartDAO;
+import DAO.CheckoutResult;
 import DAO.OrderDAO;
 import DAO.ProductDAO;
 import db.SessionContext;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.util.converter.IntegerStringConverter;
 import models.CartItem;
+import models.CartSummary;
 import models.Order;
 import models.OrderItem;
+import util.RefreshableView;
 import util.SceneNavigator;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class CartController implements Initializable {
+public class CartController implements Initializable, RefreshableView {
 
     @FXML private TableView<CartItem> cartTableView;
     @FXML private TableColumn<CartItem, String> productColumn;
@@ -34,18 +43,42 @@ public class CartController implements Initializable {
     private CartDAO cartDAO = new CartDAO();
     private ProductDAO productDAO = new ProductDAO();
     private ObservableList<CartItem> cartItems;
+    // Quantities edited in the table but not yet saved, by product id
+    private final Map<Integer, Integer> editedQuantities = new LinkedHashMap<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         setupCartTable();
+        cartItems = FXCollections.observableArrayList();
+        cartTableView.setItems(cartItems);
+        cartTableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        cartTableView.setEditable(true);
+        loadCartItems();
+    }
+
+    // Shown again by SceneNavigator; unsaved quantity edits are dropped, as leaving always did
+    @Override
+    public void refresh() {
+        cartTableView.getSelectionModel().clearSelection();
         loadCartItems();
-        updateGrandTotal();
     }
 
     private void setupCartTable() {
         productColumn.setCellValueFactory(cellData -> cellData.getValue().getProduct().nameProperty());
         priceColumn.setCellValueFactory(cellData -> cellData.getValue().getProduct().priceProperty().asObject());
         quantityColumn.setCellValueFactory(cellData -> cellData.getValue().quantityProperty().asObject());
+        quantityColumn.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
+        quantityColumn.setOnEditCommit(edit -> {
+            CartItem cartItem = edit.getRowValue();
+            Integer quantity = edit.getNewValue();
+            if (quantity == null || quantity < 1) {
+                cartTableView.refresh();
+                return;
+            }
+            cartItem.setQuantity(quantity);
+            editedQuantities.put(cartItem.getProduct().getId(), quantity);
+            cartTableView.refresh();
+        });
         totalColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getTotalPrice()));
         // For actions, we use a custom cell to offer remove functionality.
         actionColumn.setCellFactory(col -> new TableCell<CartItem, String>() {
@@ -74,14 +107,29 @@ public class CartController implements Initializable {
 
     private void loadCartItems() {
         int currentUserId = SessionContext.getCurrentUser().getId(); // Replace with session data.
-        List<CartItem> items = cartDAO.getCartItems(currentUserId);
-        cartItems = FXCollections.observableArrayList(items);
-        cartTableView.setItems(cartItems);
+        cartDAO.getCartItemsAsync(currentUserId).thenAccept(items -> Platform.runLater(() -> {
+            editedQuantities.clear();
+            cartItems.setAll(items);
+            updateGrandTotal();
+        }));
     }
 
+    // The total comes from the cart summary query rather than summing the table rows
     private void updateGrandTotal() {
-        double grandTotal = cartItems.stream().mapToDouble(CartItem::getTotalPrice).sum();
-        grandTotalLabel.setText("$" + grandTotal);
+        cartDAO.getCartSummaryAsync(SessionContext.getCurrentUser().getId()).thenAccept(summary -> Platform.runLater(() -> {
+            if (summary != null) {
+                grandTotalLabel.setText("$" + summary.getTotal());
+            }
+        }));
+    }
+
+    // True if the table still shows what is in the database, at the prices it shows
+    private boolean matchesCart(CartSummary summary) {
+        int itemCount = cartItems.stream().mapToInt(CartItem::getQuantity).sum();
+        double total = cartItems.stream().mapToDouble(CartItem::getTotalPrice).sum();
+        return summary.getLineCount() == cartItems.size()
+                && summary.getItemCount() == itemCount
+                && Math.abs(summary.getTotal() - total) < 0.005;
     }
 
     // ---------- Action Handlers ----------
@@ -95,6 +143,53 @@ public class CartController implements Initializable {
         SceneNavigator.switchTo("/views/user_profile.fxml");
     }
 
+    // Saves every edited quantity in one batched round trip
+    private CompletableFuture<Boolean> saveQuantities() {
+        if (editedQuantities.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        Map<Integer, Integer> edits = new LinkedHashMap<>(editedQuantities);
+        return cartDAO.setQuantitiesAsync(SessionContext.getCurrentUser().getId(), edits).thenApply(saved -> {
+            if (saved) {
+                Platform.runLater(() -> edits.forEach(editedQuantities::remove));
+            }
+            return saved;
+        });
+    }
+
+    @FXML
+    private void handleUpdateCart() {
+        saveQuantities().thenAccept(saved -> Platform.runLater(() -> {
+            if (saved) {
+                updateGrandTotal();
+            } else {
+                loadCartItems();
+                new Alert(Alert.AlertType.ERROR, "Failed to update quantities.").showAndWait();
+            }
+        }));
+    }
+
+    @FXML
+    private void handleRemoveSelected() {
+        List<CartItem> selected = new ArrayList<>(cartTableView.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
+        }
+        List<Integer> productIds = new ArrayList<>();
+        for (CartItem cartItem : selected) {
+            productIds.add(cartItem.getProduct().getId());
+        }
+        cartDAO.removeItemsAsync(SessionContext.getCurrentUser().getId(), productIds).thenAccept(removed -> Platform.runLater(() -> {
+            if (removed) {
+                cartItems.removeAll(selected);
+                productIds.forEach(editedQuantities::remove);
+                updateGrandTotal();
+            } else {
+                new Alert(Alert.AlertType.ERROR, "Failed to remove items.").showAndWait();
+            }
+        }));
+    }
+
     @FXML
     private void handleCheckout() {
         int currentUserId = SessionContext.getCurrentUser().getId();
@@ -103,43 +198,70 @@ public class CartController implements Initializable {
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
 
-            // Step 1: Load current cart items from DB
-            List<CartItem> items = cartDAO.getCartItems(currentUserId);
-            if (items.isEmpty()) {
-                new Alert(Alert.AlertType.WARNING, "Your cart is empty.").showAndWait();
-                return;
-            }
-
-            // Step 2: Calculate total order amount
-            double total = items.stream().mapToDouble(CartItem::getTotalPrice).sum();
+            // Step 1: Save edited quantities, then one aggregate query tells us whether the cart is empty or changed
+            saveQuantities().thenAccept(saved -> {
+                if (saved) {
+                    checkCartAndPlaceOrder(currentUserId);
+                } else {
+                    Platform.runLater(() -> {
+                        loadCartItems();
+                        new Alert(Alert.AlertType.ERROR, "Failed to update quantities.").showAndWait();
+                    });
+                }
+            });
+        }
+    }
 
-            // Step 3: Create Order and prepare OrderItems list
-            Order order = new Order(currentUserId, total); // Status will default to PENDING
-            List<OrderItem> orderItems = new ArrayList<>();
-            for (CartItem cartItem : items) {
-                // For each CartItem, create an OrderItem with the current unit price and quantity
-                OrderItem orderItem = new OrderItem(0, cartItem.getProduct(), cartItem.getQuantity(), cartItem.getProduct().getPrice());
-                orderItems.add(orderItem);
+    private void checkCartAndPlaceOrder(int currentUserId) {
+        cartDAO.getCartSummaryAsync(currentUserId).thenAccept(summary -> Platform.runLater(() -> {
+            if (summary == null) {
+                new Alert(Alert.AlertType.ERROR, "Failed to load cart.").showAndWait();
+            } else if (summary.isEmpty()) {
+                new Alert(Alert.AlertType.WARNING, "Your cart is empty.").showAndWait();
+            } else if (!matchesCart(summary)) {
+                loadCartItems();
+                new Alert(Alert.AlertType.WARNING, "Your cart has changed. Please review it and check out again.").showAndWait();
+            } else {
+                placeOrder(currentUserId, summary);
             }
+        }));
+    }
 
-            // Step 4: Save the Order (and its items) using OrderDAO
-            OrderDAO orderDAO = new OrderDAO();
-            int orderId = orderDAO.createOrder(order, orderItems);
-
-            if (orderId != -1) {
+    private void placeOrder(int currentUserId, CartSummary summary) {
+        // Step 2: Create Order with the SQL-side total and prepare OrderItems from the table
+        Order order = new Order(currentUserId, summary.getTotal()); // Status will default to PENDING
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (CartItem cartItem : cartItems) {
+            // For each CartItem, create an OrderItem with the current unit price and quantity
+            OrderItem orderItem = new OrderItem(0, cartItem.getProduct(), cartItem.getQuantity(), cartItem.getProduct().getPrice());
+            orderItems.add(orderItem);
+        }
 
-                // Step 6: Clear the cart (if the deletion/update is successful)
-                if (cartDAO.getCartItems(currentUserId).size()==0) {
+        // Step 3: Save the Order (and its items) using OrderDAO
+        OrderDAO orderDAO = new OrderDAO();
+        orderDAO.placeOrderAsync(order, orderItems).thenAccept(checkout -> {
+            int orderId = checkout.getOrderId();
+            // Step 4: Check the cart was cleared, still off the FX thread
+            CartSummary after = checkout.isPlaced() ? cartDAO.getCartSummary(currentUserId) : null;
+            boolean cartCleared = after != null && after.isEmpty();
+            Platform.runLater(() -> {
+                if (!checkout.getShortLines().isEmpty()) {
+                    StringBuilder message = new StringBuilder("Not enough stock for:");
+                    for (CheckoutResult.ShortLine line : checkout.getShortLines()) {
+                        message.append("\n").append(line);
+                    }
+                    new Alert(Alert.AlertType.WARNING, message.toString()).showAndWait();
+                } else if (!checkout.isPlaced()) {
+                    new Alert(Alert.AlertType.ERROR, "Failed to place order.").showAndWait();
+                } else if (cartCleared) {
                     cartItems.clear();
-                    updateGrandTotal();
+                    grandTotalLabel.setText("$" + 0.0);
                     new Alert(Alert.AlertType.INFORMATION, "Checkout successful! Order ID: " + orderId).showAndWait();
                 } else {
                     new Alert(Alert.AlertType.ERROR, "Order saved but failed to clear cart.").showAndWait();
                 }
-            } else {
-                new Alert(Alert.AlertType.ERROR, "Failed to place order.").showAndWait();
-            }
-        }
+            });
+        });
     }
 
 }
@@ -3,8 +3,12 @@ package com.ecommerce.controllers;
 
 import DAO.CartDAO;
 import DAO.CategoryDAO;
+import DAO.Page;
 import DAO.ProductDAO;
 import db.SessionContext;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -12,50 +16,193 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.layout.TilePane;
 import javafx.scene.control.Button;
+import javafx.util.Duration;
+import models.CartSummary;
 import models.Category;
-import models.Product;
+import models.ProductTile;
+import util.CatalogSnapshotFile;
+import util.CatalogSnapshotStore;
+import util.RefreshableView;
 import util.SceneNavigator;
 
 import java.net.URL;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class CatalogController implements Initializable {
+public class CatalogController implements Initializable, RefreshableView {
 
     @FXML private ListView<Category> categoryListView;
     @FXML private TilePane productTilePane;
+    @FXML private ScrollPane productScrollPane;
+    @FXML private Button cartButton;
+
+    private static final int PAGE_SIZE = 30;
+    private static final Duration CART_POLL_INTERVAL = Duration.seconds(15);
 
     private CategoryDAO categoryDAO = new CategoryDAO();
     private ProductDAO productDAO = new ProductDAO();
     private CartDAO cartDAO = new CartDAO();
+    private CatalogSnapshotStore snapshotStore = CatalogSnapshotStore.shared();
+    // Local copy of the catalog; while there is one, categories and tiles are read from it
+    private CatalogSnapshotFile catalogFile;
+    private boolean showingCategories;
+    // Paging state for the product tiles; pendingProducts is the page being fetched
+    private Category selectedCategory;
+    private int lastProductId;
+    private boolean hasMoreProducts;
+    private CompletableFuture<Page<ProductTile>> pendingProducts;
+    private Timeline cartPoll;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        // Fetch the next page when the user scrolls near the bottom
+        productScrollPane.vvalueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= productScrollPane.getVmax() * 0.95) {
+                loadNextProductPage();
+            }
+        });
+
+        // Render from the local snapshot straight away when there is one, then catch it up
+        // with the database in the background; without one, categories and products load
+        // concurrently from the database
+        catalogFile = snapshotStore.openLatest();
         loadCategories();
         loadProducts(null);
+        refreshSnapshot();
+
+        // The badge is one aggregate query, cheap enough to poll for carts changed elsewhere;
+        // the toolbar handlers stop the poll before leaving this screen
+        refreshCartBadge();
+        cartPoll = new Timeline(new KeyFrame(CART_POLL_INTERVAL, e -> refreshCartBadge()));
+        cartPoll.setCycleCount(Timeline.INDEFINITE);
+        cartPoll.play();
+
+        // The cart is the usual next stop
+        SceneNavigator.preload("/views/cart.fxml");
     }
 
-    private void loadCategories() {
-        List<Category> categories = categoryDAO.findAll();
-        ObservableList<Category> categoryList = FXCollections.observableArrayList(categories);
-        categoryListView.setItems(categoryList);
+    // Shown again by SceneNavigator: catch up with the catalog and the cart
+    @Override
+    public void refresh() {
+        if (catalogFile == null) {
+            loadProducts(selectedCategory);
+        }
+        refreshSnapshot();
+        refreshCartBadge();
+        cartPoll.play();
+    }
+
+    private void refreshSnapshot() {
+        snapshotStore.refreshAsync().thenAccept(refreshed -> Platform.runLater(() -> {
+            if (catalogFile != null && refreshed != null && refreshed != catalogFile) {
+                catalogFile = refreshed;
+                reloadFromSnapshot();
+            }
+        }));
+    }
+
+    private void refreshCartBadge() {
+        cartDAO.getCartSummaryAsync(SessionContext.getCurrentUser().getId()).thenAccept(summary -> Platform.runLater(() -> {
+            if (summary != null) {
+                showCartBadge(summary);
+            }
+        }));
+    }
+
+    private void showCartBadge(CartSummary summary) {
+        cartButton.setText(summary.isEmpty() ? "My Cart" : "My Cart (" + summary.getItemCount() + ")");
+    }
 
+    private void loadCategories() {
         // Change products based on selected category.
         categoryListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            loadProducts(newVal);
+            if (!showingCategories) {
+                loadProducts(newVal);
+            }
         });
+
+        if (catalogFile != null) {
+            showCategories(catalogFile.getCategories());
+            return;
+        }
+        categoryDAO.getSnapshotAsync().thenAccept(snapshot -> Platform.runLater(() -> {
+            showCategories(snapshot.getCategories());
+        }));
+    }
+
+    private void showCategories(List<Category> categories) {
+        ObservableList<Category> categoryList = FXCollections.observableArrayList(categories);
+        showingCategories = true;
+        categoryListView.setItems(categoryList);
+        showingCategories = false;
+    }
+
+    // Shows a refreshed snapshot, keeping the selected category if it still exists
+    private void reloadFromSnapshot() {
+        Integer selectedId = selectedCategory == null ? null : selectedCategory.getId();
+        showCategories(catalogFile.getCategories());
+        Category reselected = null;
+        for (Category category : categoryListView.getItems()) {
+            if (selectedId != null && category.getId() == selectedId) {
+                reselected = category;
+                showingCategories = true;
+                categoryListView.getSelectionModel().select(category);
+                showingCategories = false;
+            }
+        }
+        loadProducts(reselected);
     }
 
     private void loadProducts(Category category) {
+        selectedCategory = category;
+        lastProductId = 0;
+        hasMoreProducts = true;
+        pendingProducts = null;
         productTilePane.getChildren().clear();
-        List<Product> products;
-        if (category == null) {
-            products = productDAO.findAll();
+        productScrollPane.setVvalue(0);
+        loadNextProductPage();
+    }
+
+    private void loadNextProductPage() {
+        if (!hasMoreProducts || pendingProducts != null) {
+            return;
+        }
+        // Tiles only need name, price and stock, so fetch the narrow projection
+        CompletableFuture<Page<ProductTile>> request;
+        if (catalogFile != null) {
+            request = CompletableFuture.completedFuture(catalogFile.findTilePage(
+                    selectedCategory == null ? null : selectedCategory.getId(), lastProductId, PAGE_SIZE));
+        } else if (selectedCategory == null) {
+            request = productDAO.findTilePageAsync(lastProductId, PAGE_SIZE);
         } else {
-            products = productDAO.findByCategory(category.getId());
+            request = productDAO.findTilePageByCategoryAsync(selectedCategory.getId(), lastProductId, PAGE_SIZE);
         }
-        for (Product product : products) {
+        pendingProducts = request;
+        request.thenAccept(page -> Platform.runLater(() -> {
+            // A newer selection may have been made while this one was loading
+            if (request != pendingProducts) {
+                return;
+            }
+            pendingProducts = null;
+            hasMoreProducts = page.hasNext();
+            if (!page.isEmpty()) {
+                lastProductId = page.getLast().getId();
+            }
+            showProducts(page.getItems());
+
+            // Keep going until the tiles overflow the viewport, otherwise there is nothing to scroll
+            Platform.runLater(() -> {
+                if (productTilePane.getHeight() <= productScrollPane.getViewportBounds().getHeight()) {
+                    loadNextProductPage();
+                }
+            });
+        }));
+    }
+
+    private void showProducts(List<ProductTile> products) {
+        for (ProductTile product : products) {
             Button productButton = new Button();
             productButton.setPrefWidth(120);
 
@@ -73,6 +220,7 @@ public class CatalogController implements Initializable {
                             if (qty > product.getStock()) {
                                 new Alert(Alert.AlertType.ERROR, "Invalid quantity.").showAndWait();
                             } else if (cartDAO.addToCart(SessionContext.getCurrentUser().getId(), product.getId(), qty)) {
+                                refreshCartBadge();
                                 new Alert(Alert.AlertType.INFORMATION, "Added to cart.").showAndWait();
                             } else {
                                 new Alert(Alert.AlertType.ERROR, "Failed to add to cart.").showAndWait();
@@ -94,16 +242,19 @@ public class CatalogController implements Initializable {
 
     @FXML
     private void handleProfile() {
+        cartPoll.stop();
         SceneNavigator.switchTo("/views/user_profile.fxml");
     }
 
     @FXML
     private void handleCart() {
+        cartPoll.stop();
         SceneNavigator.switchTo("/views/cart.fxml");
     }
 
     @FXML
     private void handleLogout() {
+        cartPoll.stop();
         SceneNavigator.switchTo("/views/login.fxml");
     }
 }
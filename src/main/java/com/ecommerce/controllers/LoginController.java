@@ -3,17 +3,24 @@ package com.ecommerce.controllers;
 
 import DAO.UserDAO;
 import db.SessionContext;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import models.User;
 import util.SceneNavigator;
 
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 public class LoginController {
 
     @FXML private TextField usernameField;
     @FXML private PasswordField passwordField;
     @FXML private Label errorLabel;
+    @FXML private Button loginButton;
+    @FXML private ProgressIndicator loginProgress;
 
     private UserDAO userDAO = new UserDAO();
 
@@ -27,21 +34,41 @@ public class LoginController {
             return;
         }
 
-        boolean valid = userDAO.validateCredentials(username, password);
-        if (valid) {
-            errorLabel.setText("");
-            User user = userDAO.findByUsername(username);
-            SessionContext.setCurrentUser(user);
-
-            // Navigate based on user role.
-            if (user.getRole().toString().equals("ADMIN")) {
-                SceneNavigator.switchTo("/views/admin_dashboard.fxml");
+        // Lookup and BCrypt check run off the FX thread; the window stays responsive meanwhile
+        errorLabel.setText("");
+        setBusy(true);
+        userDAO.authenticateAsync(username, password).whenComplete((result, error) -> Platform.runLater(() -> {
+            setBusy(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                errorLabel.setText(cause instanceof RejectedExecutionException
+                        ? "Too many sign-ins in progress. Please try again."
+                        : "Login failed. Please try again.");
             } else {
-                SceneNavigator.switchTo("/views/product_catalog.fxml");
+                showResult(result);
             }
-        } else {
+        }));
+    }
+
+    private void showResult(Optional<User> result) {
+        if (result.isEmpty()) {
             errorLabel.setText("Invalid username or password.");
+            return;
         }
+        User user = result.get();
+        SessionContext.setCurrentUser(user);
+
+        // Navigate based on user role.
+        if (user.getRole().toString().equals("ADMIN")) {
+            SceneNavigator.switchTo("/views/admin_dashboard.fxml");
+        } else {
+            SceneNavigator.switchTo("/views/product_catalog.fxml");
+        }
+    }
+
+    private void setBusy(boolean busy) {
+        loginButton.setDisable(busy);
+        loginProgress.setVisible(busy);
     }
 
     @FXML
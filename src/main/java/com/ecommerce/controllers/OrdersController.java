@@ -2,6 +2,8 @@ package com.ecommerce.controllers;
 
 
 import DAO.OrderDAO;
+import DAO.Page;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,6 +14,7 @@ import javafx.scene.layout.HBox;
 import models.Order;
 import models.OrderItem;
 import models.OrderStatus;
+import models.OrderWithItems;
 import util.SceneNavigator;
 
 import java.net.URL;
@@ -34,6 +37,9 @@ public class OrdersController implements Initializable {
     @FXML private TableColumn<OrderItem, Double> itemTotalCol;
     @FXML private TableColumn<Order, OrderStatus> orderStatusCol;
     @FXML private TableColumn<Order, Void> statusActionCol;
+    @FXML private Button loadMoreOrdersButton;
+
+    private static final int PAGE_SIZE = 50;
 
     private OrderDAO orderDAO = new OrderDAO();
     private ObservableList<Order> ordersList;
@@ -98,7 +104,7 @@ public class OrdersController implements Initializable {
 
     private void updateOrderStatus(Order order, OrderStatus newStatus) {
         order.setStatus(newStatus);
-        orderDAO.updateOrderStatus(order.getId(), newStatus);
+        orderDAO.updateOrderStatusAsync(order.getId(), newStatus);
         ordersTable.refresh(); // Refresh to update button states
         orderItemsTable.refresh(); // Refresh related items if needed
     }
@@ -111,16 +117,34 @@ public class OrdersController implements Initializable {
     }
 
     private void loadOrders() {
-        // For admin view, load all orders.
-        List<Order> orders = orderDAO.getAllOrders();
-        ordersList = FXCollections.observableArrayList(orders);
+        // For admin view, page through all orders, newest first.
+        ordersList = FXCollections.observableArrayList();
         ordersTable.setItems(ordersList);
+        loadNextOrderPage();
+    }
+
+    private void loadNextOrderPage() {
+        Order after = ordersList.isEmpty() ? null : ordersList.get(ordersList.size() - 1);
+        loadMoreOrdersButton.setDisable(true);
+        // Each page brings its orders' items along, so selecting an order needs no query
+        orderDAO.getOrdersWithItemsPageAsync(null, after, PAGE_SIZE).thenAccept(page -> Platform.runLater(() -> {
+            for (OrderWithItems entry : page.getItems()) {
+                ordersList.add(entry.getOrder());
+            }
+            loadMoreOrdersButton.setDisable(!page.hasNext());
+        }));
     }
 
     private void loadOrderItems(int orderId) {
-        List<OrderItem> items = orderDAO.getOrderItems(orderId);
-        orderItemsList = FXCollections.observableArrayList(items);
-        orderItemsTable.setItems(orderItemsList);
+        orderDAO.getOrderItemsAsync(orderId).thenAccept(items -> Platform.runLater(() -> {
+            orderItemsList = FXCollections.observableArrayList(items);
+            orderItemsTable.setItems(orderItemsList);
+        }));
+    }
+
+    @FXML
+    private void handleLoadMoreOrders() {
+        loadNextOrderPage();
     }
 
     @FXML
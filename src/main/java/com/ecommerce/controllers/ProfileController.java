@@ -3,17 +3,19 @@ package com.ecommerce.controllers;
 import DAO.OrderDAO;
 import DAO.UserDAO;
 import db.SessionContext;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
-import models.Order;
 import models.OrderItem;
+import models.OrderSummary;
 import models.User;
+import util.ImageCache;
+import util.RefreshableView;
 import util.SceneNavigator;
 
 import java.net.URL;
@@ -25,7 +27,7 @@ import java.io.File;
 
 
 
-public class ProfileController implements Initializable {
+public class ProfileController implements Initializable, RefreshableView {
 
     @FXML private ImageView profileImageView;
     @FXML private Label usernameLabel;
@@ -33,7 +35,7 @@ public class ProfileController implements Initializable {
     @FXML private TextArea addressField;
 
     // New controls for Order History
-    @FXML private ComboBox<Order> ordersCombo;
+    @FXML private ComboBox<OrderSummary> ordersCombo;
     @FXML private ListView<String> orderItemsList;
     @FXML private TextField orderStatusField;
 
@@ -59,27 +61,46 @@ public class ProfileController implements Initializable {
         });
     }
 
+    // Shown again by SceneNavigator: orders may have been placed since
+    @Override
+    public void refresh() {
+        currentUser = SessionContext.getCurrentUser();
+        loadProfile();
+        loadOrderHistory();
+    }
+
     private void loadProfile() {
         if (currentUser != null) {
             usernameLabel.setText(currentUser.getUsername());
             emailField.setText(currentUser.getEmail());
             addressField.setText(currentUser.getAddress());
             if (currentUser.getProfilePic() != null && !currentUser.getProfilePic().isEmpty()) {
-                profileImageView.setImage(new Image(currentUser.getProfilePic()));
+                showProfilePic(currentUser.getProfilePic());
             }
         }
     }
 
+    // Loads the picture in the background, decoded at the size the view shows it
+    private void showProfilePic(String url) {
+        int width = (int) profileImageView.getFitWidth();
+        int height = (int) profileImageView.getFitHeight();
+        ImageCache.shared().load(url, width, height).thenAccept(image -> Platform.runLater(() -> {
+            // Another photo may have been chosen while this one was loading
+            if (image != null && url.equals(currentUser.getProfilePic())) {
+                profileImageView.setImage(image);
+            }
+        }));
+    }
+
     private void loadOrderHistory() {
-        // Retrieve orders for the current user.
-        List<Order> orders = orderDAO.getOrdersByUser(currentUser.getId());
-        ObservableList<Order> orderList = FXCollections.observableArrayList(orders);
-        ordersCombo.setItems(orderList);
+        // The combo only shows id, total and date, so fetch summaries; items load on selection
+        orderDAO.getOrderSummariesAsync(currentUser.getId()).thenAccept(summaries -> Platform.runLater(() ->
+                ordersCombo.setItems(FXCollections.observableArrayList(summaries))));
 
         // Use a custom converter to display the order summary
-        ordersCombo.setConverter(new StringConverter<Order>() {
+        ordersCombo.setConverter(new StringConverter<OrderSummary>() {
             @Override
-            public String toString(Order order) {
+            public String toString(OrderSummary order) {
                 if (order == null) {
                     return "";
                 }
@@ -87,15 +108,18 @@ public class ProfileController implements Initializable {
                 return "Order #" + order.getId() + " - $" + order.getTotal() + " on " + order.getOrderDate();
             }
             @Override
-            public Order fromString(String string) {
+            public OrderSummary fromString(String string) {
                 return null; // Not needed in this context.
             }
         });
     }
 
-    private void loadOrderItems(Order order) {
-        // Retrieve order items for the selected order.
-        List<OrderItem> items = orderDAO.getOrderItems(order.getId());
+    private void loadOrderItems(OrderSummary order) {
+        // Retrieve order items for the selected order (cached after the first selection).
+        orderDAO.getOrderItemsAsync(order.getId()).thenAccept(items -> Platform.runLater(() -> showOrderItems(order, items)));
+    }
+
+    private void showOrderItems(OrderSummary order, List<OrderItem> items) {
         ObservableList<String> orderItemDetails = FXCollections.observableArrayList();
         for (OrderItem item : items) {
             // Build a string for each order item. For example:
@@ -127,8 +151,8 @@ public class ProfileController implements Initializable {
         File file = fileChooser.showOpenDialog(profileImageView.getScene().getWindow());
         if (file != null) {
             String imageUrl = file.toURI().toString();
-            profileImageView.setImage(new Image(imageUrl));
             currentUser.setProfilePic(imageUrl);
+            showProfilePic(imageUrl);
             // Optionally persist the change:
             userDAO.updateUser(currentUser);
         }
@@ -2,13 +2,14 @@ package com.ecommerce.controllers;
 
 
 import DAO.UserDAO;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import models.User;
 import models.UserRole;
+import util.ImageCache;
 import util.SceneNavigator;
 
 import java.io.File;
@@ -23,6 +24,8 @@ public class SignupController {
     @FXML private Label errorLabel;
 
     private UserDAO userDAO = new UserDAO();
+    // The view may show a thumbnail without a URL of its own, so the chosen file is kept here
+    private String profilePicUrl = "";
 
     @FXML
     private void handleUploadPicture() {
@@ -33,7 +36,14 @@ public class SignupController {
         );
         File file = fileChooser.showOpenDialog(profileImageView.getScene().getWindow());
         if (file != null) {
-            profileImageView.setImage(new Image(file.toURI().toString()));
+            String imageUrl = file.toURI().toString();
+            profilePicUrl = imageUrl;
+            ImageCache.shared().load(imageUrl, (int) profileImageView.getFitWidth(), (int) profileImageView.getFitHeight())
+                    .thenAccept(image -> Platform.runLater(() -> {
+                        if (image != null && imageUrl.equals(profilePicUrl)) {
+                            profileImageView.setImage(image);
+                        }
+                    }));
         }
     }
 
@@ -43,7 +53,6 @@ public class SignupController {
         String password = passwordField.getText().trim();
         String email = emailField.getText().trim();
         String address = addressField.getText().trim();
-        String profilePicUrl = profileImageView.getImage() != null ? profileImageView.getImage().getUrl() : "";
 
         if (username.isEmpty() || password.isEmpty() || email.isEmpty()) {
             errorLabel.setText("Username, Password, and Email are required.");
@@ -0,0 +1,111 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends writes to the primary pool and spreads reads over replica pools.
+ * Reads stay on the primary for a short window after a write so the session
+ * always sees its own changes even if the replicas lag behind. Each app
+ * instance is one user session, so the window is tracked per router.
+ *
+ * The window starts at markWrite(), which DAOs call once a statement that
+ * changed rows has committed. borrowPrimary() alone does not start it, so
+ * work that only reads on the primary does not pin every read there.
+ */
+public class ConnectionRouter implements AutoCloseable {
+    public enum Strategy { ROUND_ROBIN, LEAST_LOADED }
+
+    private final ConnectionPool primary;
+    private final List<ConnectionPool> replicas;
+    private final Strategy strategy;
+    private final long readYourWritesNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private volatile long lastWriteNanos;
+    private volatile boolean hasWritten;
+
+    public ConnectionRouter(ConnectionPool primary, List<ConnectionPool> replicas,
+                            Strategy strategy, long readYourWritesMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+    }
+
+    // A primary connection, for writes and for reads that must not lag; borrowing it is not a write
+    public Connection borrowPrimary() throws SQLException {
+        return primary.borrow();
+    }
+
+    public Connection borrowRead() throws SQLException {
+        if (replicas.isEmpty() || recentlyWrote()) {
+            primaryReads.incrementAndGet();
+            return primary.borrow();
+        }
+        ConnectionPool replica = pickReplica();
+        try {
+            Connection conn = replica.borrow();
+            replicaReads.incrementAndGet();
+            return conn;
+        } catch (SQLException e) {
+            System.err.println("Replica unavailable, reading from primary: " + e.getMessage());
+            primaryReads.incrementAndGet();
+            return primary.borrow();
+        }
+    }
+
+    public void markWrite() {
+        lastWriteNanos = System.nanoTime();
+        hasWritten = true;
+    }
+
+    public ConnectionPool getPrimary() {
+        return primary;
+    }
+
+    public List<ConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        for (ConnectionPool replica : replicas) {
+            replica.close();
+        }
+    }
+
+    private boolean recentlyWrote() {
+        return hasWritten && System.nanoTime() - lastWriteNanos < readYourWritesNanos;
+    }
+
+    private ConnectionPool pickReplica() {
+        if (strategy == Strategy.LEAST_LOADED) {
+            ConnectionPool best = replicas.get(0);
+            int bestActive = best.getActiveCount();
+            for (int i = 1; i < replicas.size(); i++) {
+                int active = replicas.get(i).getActiveCount();
+                if (active < bestActive) {
+                    best = replicas.get(i);
+                    bestActive = active;
+                }
+            }
+            return best;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+}
@@ -1,50 +1,214 @@
 package db;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 
+/**
+ * Entry point to the connection pool. The database is chosen by the db.profile
+ * setting, read from system properties, from the file named by -Ddb.config, or from
+ * db.properties on the classpath (in that order of precedence):
+ *   mysql   - the shared cloud MySQL instance (default)
+ *   h2-mem  - in-memory H2 in MySQL mode, seeded with an admin user on startup
+ *   h2-file - file-backed H2 in MySQL mode at db.h2.path, seeded likewise
+ * db.url, db.user and db.password override the profile's connection details.
+ * Pending schema migrations (see SchemaMigrator) are applied to the primary on
+ * startup unless db.migrate is false.
+ *
+ * Read replicas are declared as db.replica.1.url, db.replica.2.url, ... (user and
+ * password default to the primary's). db.replica.strategy picks round-robin or
+ * least-loaded, and db.replica.readYourWritesMillis is how long reads stay on the
+ * primary after a write.
+ */
 public class DatabaseConnection {
-    private static Connection connection = null;
+    private static volatile ConnectionRouter router = null;
+    private static volatile String profile = null;
 
     //test DB
-    private static final String URL = "jdbc:mysql://mysql-503c14d-seif-ecommerce.b.aivencloud.com:10135/ecommerce?sslMode=REQUIRED";
+    // Server-side prepared statements, so a statement kept by StatementCache is not re-prepared by the server either
+    private static final String URL = "jdbc:mysql://mysql-503c14d-seif-ecommerce.b.aivencloud.com:10135/ecommerce?sslMode=REQUIRED&rewriteBatchedStatements=true&useServerPrepStmts=true";
     private static final String USER = "avnadmin";
     private static final String PASSWORD = "AVNS_ijiDTYvK5LaaVgUVnx6";
 
-    static {
-        try {
-            // Explicitly load the driver class
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("Database connection established");
-        } catch (ClassNotFoundException | SQLException e) {
-            System.err.println("Database connection failed:");
-            e.printStackTrace();
-            throw new RuntimeException("Failed to initialize database connection", e);
+    private static final String H2_MEM_URL = "jdbc:h2:mem:ecommerce;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String H2_FILE_URL = "jdbc:h2:file:%s;MODE=MySQL";
+    private static final String H2_DEFAULT_PATH = "./data/ecommerce";
+    private static final String H2_SEED = "/db/h2-seed.sql";
+
+    // The pools are created on first use so that merely loading a DAO class never touches the network
+    public static ConnectionRouter getRouter() {
+        ConnectionRouter current = router;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = router;
+                if (current == null) {
+                    current = startRouter(loadSettings());
+                    router = current;
+                }
+            }
         }
+        return current;
+    }
+
+    public static ConnectionPool getPool() {
+        return getRouter().getPrimary();
     }
 
+    // Borrows a pooled connection to the primary; closing it hands it back to the pool
     public static Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            }
+            return getRouter().borrowPrimary();
         } catch (SQLException e) {
             throw new RuntimeException("Error getting database connection", e);
         }
-        return connection;
+    }
+
+    // Borrows a connection for read-only work, from a replica when one is configured
+    public static Connection getReadConnection() {
+        try {
+            return getRouter().borrowRead();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error getting database connection", e);
+        }
+    }
+
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    public static String getProfile() {
+        getRouter();
+        return profile;
+    }
+
+    public static boolean isH2() {
+        return getProfile().startsWith("h2");
     }
 
     public static void closeConnection() {
+        DatabaseExecutor.shutdown();
+        ConnectionRouter current;
+        synchronized (DatabaseConnection.class) {
+            current = router;
+            router = null;
+        }
+        if (current != null) {
+            current.close();
+            System.out.println("Database connection pool closed");
+        }
+    }
+
+    // A fresh copy of the merged db.* settings, for components configured alongside the pool
+    public static Properties getSettings() {
+        return loadSettings();
+    }
+
+    static Properties loadSettings() {
+        Properties settings = new Properties();
+        try (InputStream in = DatabaseConnection.class.getResourceAsStream("/db.properties")) {
+            if (in != null) {
+                settings.load(in);
+            }
+            String configFile = System.getProperty("db.config");
+            if (configFile != null) {
+                try (InputStream fileIn = Files.newInputStream(Path.of(configFile))) {
+                    settings.load(fileIn);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read database settings", e);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("db.")) {
+                settings.setProperty(name, System.getProperty(name));
+            }
+        }
+        return settings;
+    }
+
+    private static ConnectionRouter startRouter(Properties settings) {
+        String selected = settings.getProperty("db.profile", "mysql").trim();
+        String url;
+        String user;
+        String password;
+        String driver;
+        switch (selected) {
+            case "mysql":
+                url = URL;
+                user = USER;
+                password = PASSWORD;
+                driver = "com.mysql.cj.jdbc.Driver";
+                break;
+            case "h2-mem":
+                url = H2_MEM_URL;
+                user = "sa";
+                password = "";
+                driver = "org.h2.Driver";
+                break;
+            case "h2-file":
+                url = String.format(H2_FILE_URL, settings.getProperty("db.h2.path", H2_DEFAULT_PATH));
+                user = "sa";
+                password = "";
+                driver = "org.h2.Driver";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown db.profile '" + selected
+                        + "' (expected mysql, h2-mem or h2-file)");
+        }
+        url = settings.getProperty("db.url", url);
+        user = settings.getProperty("db.user", user);
+        password = settings.getProperty("db.password", password);
+
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed");
+            // Explicitly load the driver class
+            Class.forName(driver);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("JDBC driver not found: " + driver, e);
+        }
+
+        boolean h2 = selected.startsWith("h2");
+        boolean migrate = Boolean.parseBoolean(settings.getProperty("db.migrate", "true").trim());
+        ConnectionPool primary = startPool(PoolConfig.fromProperties(url, user, password, settings), migrate, h2);
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (int i = 1; settings.getProperty("db.replica." + i + ".url") != null; i++) {
+            String prefix = "db.replica." + i + ".";
+            replicas.add(startPool(PoolConfig.fromProperties(
+                    settings.getProperty(prefix + "url"),
+                    settings.getProperty(prefix + "user", user),
+                    settings.getProperty(prefix + "password", password),
+                    settings), h2, h2)); // embedded replicas are separate databases, not copies
+        }
+        ConnectionRouter.Strategy strategy = ConnectionRouter.Strategy.valueOf(
+                settings.getProperty("db.replica.strategy", "round-robin").trim().toUpperCase().replace('-', '_'));
+        long readYourWritesMillis = Long.parseLong(settings.getProperty("db.replica.readYourWritesMillis", "5000").trim());
+
+        profile = selected;
+        System.out.println("Database connection pool started (" + selected + ", "
+                + replicas.size() + " replica(s))");
+        return new ConnectionRouter(primary, replicas, strategy, readYourWritesMillis);
+    }
+
+    private static ConnectionPool startPool(PoolConfig config, boolean migrate, boolean seed) {
+        ConnectionPool started = new ConnectionPool(config);
+        if (migrate || seed) {
+            try (Connection conn = started.borrow()) {
+                if (migrate) {
+                    SchemaMigrator.migrate(conn);
+                }
+                if (seed) {
+                    SqlScript.run(conn, H2_SEED);
+                }
+            } catch (SQLException e) {
+                started.close();
+                throw new RuntimeException("Failed to prepare the database schema", e);
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing connection:");
-            e.printStackTrace();
         }
+        return started;
     }
 }
@@ -0,0 +1,56 @@
+package db;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the DAOs' *Async methods. There are never more worker threads than the pool
+ * has connections, since extra threads would only queue up inside borrow(); further
+ * tasks wait in the executor's queue instead. Threads are daemons and time out when
+ * idle, so an unused executor costs nothing.
+ */
+public class DatabaseExecutor {
+    private static volatile ExecutorService executor = null;
+
+    public static ExecutorService get() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (DatabaseExecutor.class) {
+                current = executor;
+                if (current == null) {
+                    // Sized from the settings alone so creating it never opens a connection
+                    PoolConfig config = PoolConfig.fromProperties(null, null, null, DatabaseConnection.loadSettings());
+                    current = create(config.getMaxSize());
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static void shutdown() {
+        ExecutorService current;
+        synchronized (DatabaseExecutor.class) {
+            current = executor;
+            executor = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    static ExecutorService create(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "db-async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,79 @@
+package db;
+
+import java.util.Properties;
+
+public class PoolConfig {
+    private String url;
+    private String user;
+    private String password;
+
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long idleTimeoutMillis = 10 * 60_000L;
+    private long acquireTimeoutMillis = 30_000L;
+    private int validationTimeoutSeconds = 5;
+    // Connections handed back more recently than this are trusted without a ping
+    private long validationBypassMillis = 500L;
+    // 0 disables leak detection
+    private long leakDetectionThresholdMillis = 60_000L;
+    private long housekeepingPeriodMillis = 30_000L;
+    // Prepared statements kept per connection; 0 disables the cache
+    private int statementCacheSize = 64;
+
+    public PoolConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    // Applies any db.pool.* settings on top of the defaults above
+    public static PoolConfig fromProperties(String url, String user, String password, Properties settings) {
+        PoolConfig config = new PoolConfig(url, user, password);
+        config.setMinIdle(intSetting(settings, "db.pool.minIdle", config.minIdle));
+        config.setMaxSize(intSetting(settings, "db.pool.maxSize", config.maxSize));
+        config.setIdleTimeoutMillis(longSetting(settings, "db.pool.idleTimeoutMillis", config.idleTimeoutMillis));
+        config.setAcquireTimeoutMillis(longSetting(settings, "db.pool.acquireTimeoutMillis", config.acquireTimeoutMillis));
+        config.setValidationTimeoutSeconds(intSetting(settings, "db.pool.validationTimeoutSeconds", config.validationTimeoutSeconds));
+        config.setValidationBypassMillis(longSetting(settings, "db.pool.validationBypassMillis", config.validationBypassMillis));
+        config.setLeakDetectionThresholdMillis(longSetting(settings, "db.pool.leakDetectionThresholdMillis", config.leakDetectionThresholdMillis));
+        config.setHousekeepingPeriodMillis(longSetting(settings, "db.pool.housekeepingPeriodMillis", config.housekeepingPeriodMillis));
+        config.setStatementCacheSize(intSetting(settings, "db.pool.statementCacheSize", config.statementCacheSize));
+        return config;
+    }
+
+    private static int intSetting(Properties settings, String key, int defaultValue) {
+        String value = settings.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longSetting(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+    public int getMinIdle() { return minIdle; }
+    public int getMaxSize() { return maxSize; }
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public long getAcquireTimeoutMillis() { return acquireTimeoutMillis; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public long getValidationBypassMillis() { return validationBypassMillis; }
+    public long getLeakDetectionThresholdMillis() { return leakDetectionThresholdMillis; }
+    public long getHousekeepingPeriodMillis() { return housekeepingPeriodMillis; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+
+    public void setUrl(String url) { this.url = url; }
+    public void setUser(String user) { this.user = user; }
+    public void setPassword(String password) { this.password = password; }
+    public void setMinIdle(int minIdle) { this.minIdle = Math.max(0, minIdle); }
+    public void setMaxSize(int maxSize) { this.maxSize = Math.max(1, maxSize); }
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) { this.acquireTimeoutMillis = acquireTimeoutMillis; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+    public void setValidationBypassMillis(long validationBypassMillis) { this.validationBypassMillis = validationBypassMillis; }
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) { this.leakDetectionThresholdMillis = leakDetectionThresholdMillis; }
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) { this.housekeepingPeriodMillis = housekeepingPeriodMillis; }
+    public void setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = Math.max(0, statementCacheSize); }
+}
@@ -0,0 +1,71 @@
+package db;
+
+public class PoolStats {
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long leakCount;
+    private final long statementHits;
+    private final long statementMisses;
+    private final long statementEvictions;
+
+    public PoolStats(int total, int active, int idle, int waiting, int maxSize,
+                     long borrowCount, long timeoutCount, long leakCount,
+                     long statementHits, long statementMisses, long statementEvictions) {
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getTotal() { return total; }
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getWaiting() { return waiting; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getLeakCount() { return leakCount; }
+    public long getStatementHits() { return statementHits; }
+    public long getStatementMisses() { return statementMisses; }
+    public long getStatementEvictions() { return statementEvictions; }
+
+    // Share of the pool's capacity currently checked out, 0.0 - 1.0
+    public double getUtilization() {
+        return maxSize == 0 ? 0.0 : (double) active / maxSize;
+    }
+
+    public double getStatementHitRatio() {
+        long lookups = statementHits + statementMisses;
+        return lookups == 0 ? 0.0 : (double) statementHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "total=" + total +
+                ", active=" + active +
+                ", idle=" + idle +
+                ", waiting=" + waiting +
+                ", max=" + maxSize +
+                ", utilization=" + String.format("%.0f%%", getUtilization() * 100) +
+                ", borrows=" + borrowCount +
+                ", timeouts=" + timeoutCount +
+                ", leaks=" + leakCount +
+                ", stmtHits=" + statementHits +
+                ", stmtMisses=" + statementMisses +
+                ", stmtEvictions=" + statementEvictions +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+package db;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs EXPLAIN on the SQL constants (static final String fields holding a SELECT,
+ * UPDATE or DELETE) of the given DAO classes and reports the ones that read a whole
+ * table. Understands H2's plan text and MySQL's tabular EXPLAIN. Templates that are
+ * completed at run time (containing %s) are skipped.
+ *
+ *   java db.QueryPlanCheck    checks the DAOs against the configured database
+ */
+public class QueryPlanCheck {
+    private static final String[] DAO_CLASSES = {
+            "DAO.CartDAO", "DAO.CategoryDAO", "DAO.OrderDAO", "DAO.ProductDAO", "DAO.UserDAO",
+            "DAO.CatalogChangePoller", "DAO.CatalogChangeDAO",
+    };
+
+    // Returns "Class.FIELD" for every constant whose plan contains a full table scan
+    public static List<String> findFullScans(Connection conn, Class<?>... daoClasses) throws SQLException {
+        List<String> fullScans = new ArrayList<>();
+        for (Class<?> dao : daoClasses) {
+            for (Field field : dao.getDeclaredFields()) {
+                String sql = sqlConstant(field);
+                if (sql != null && isFullScan(conn, sql)) {
+                    fullScans.add(dao.getSimpleName() + "." + field.getName());
+                }
+            }
+        }
+        return fullScans;
+    }
+
+    public static boolean isFullScan(Connection conn, String sql) throws SQLException {
+        boolean mySql = "MySQL".equals(conn.getMetaData().getDatabaseProductName());
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            if (mySql) {
+                bindSampleValues(stmt, sql);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (mySql ? "ALL".equalsIgnoreCase(rs.getString("type"))
+                              : rs.getString(1).contains(".tableScan")) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String sqlConstant(Field field) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers) || field.getType() != String.class) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            String sql = ((String) field.get(null)).trim();
+            String verb = sql.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+            boolean explainable = verb.equals("SELECT") || verb.equals("UPDATE") || verb.equals("DELETE");
+            return explainable && !sql.contains("%s") ? sql : null;
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // MySQL will not explain unbound placeholders. A LIMIT needs a number; anything
+    // else gets the string '1', which MySQL compares against indexed columns of any type.
+    private static void bindSampleValues(PreparedStatement stmt, String sql) throws SQLException {
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) != '?') {
+                continue;
+            }
+            String before = sql.substring(0, i).stripTrailing().toUpperCase(Locale.ROOT);
+            if (before.endsWith("LIMIT")) {
+                stmt.setInt(++index, 1);
+            } else {
+                stmt.setString(++index, "1");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Class<?>> daos = new ArrayList<>();
+        for (String name : DAO_CLASSES) {
+            daos.add(Class.forName(name));
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            List<String> fullScans = findFullScans(conn, daos.toArray(new Class<?>[0]));
+            if (fullScans.isEmpty()) {
+                System.out.println("No full table scans");
+            } else {
+                fullScans.forEach(name -> System.out.println("Full table scan: " + name));
+            }
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+}
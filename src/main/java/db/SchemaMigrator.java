@@ -0,0 +1,84 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the versioned scripts under /db/migration in order and records each one in
+ * the schema_version table, so every script runs exactly once per database. Scripts
+ * are named V&lt;version&gt;__&lt;description&gt;.sql. Once a script has shipped, never
+ * edit it; add a new one to the end of MIGRATIONS instead.
+ */
+public class SchemaMigrator {
+    private static final String LOCATION = "/db/migration/";
+
+    static final String[] MIGRATIONS = {
+            "V1__baseline.sql",
+            "V2__hot_query_indexes.sql",
+            "V3__catalog_changes.sql",
+    };
+
+    private static final String CREATE_HISTORY = """
+        CREATE TABLE IF NOT EXISTS schema_version (
+            version     INT          PRIMARY KEY,
+            description VARCHAR(200) NOT NULL,
+            applied_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )""";
+
+    private static final String FIND_APPLIED = """
+        SELECT version FROM schema_version""";
+
+    private static final String RECORD_APPLIED = """
+        INSERT INTO schema_version(version, description) VALUES (?, ?)""";
+
+    // Applies whatever has not run yet and returns the versions applied now
+    public static List<Integer> migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_HISTORY);
+        }
+
+        Set<Integer> applied = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_APPLIED);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                applied.add(rs.getInt(1));
+            }
+        }
+
+        List<Integer> appliedNow = new ArrayList<>();
+        for (String script : MIGRATIONS) {
+            int version = versionOf(script);
+            if (applied.contains(version)) {
+                continue;
+            }
+            try {
+                SqlScript.run(conn, LOCATION + script);
+                try (PreparedStatement stmt = conn.prepareStatement(RECORD_APPLIED)) {
+                    stmt.setInt(1, version);
+                    stmt.setString(2, descriptionOf(script));
+                    stmt.executeUpdate();
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Migration " + script + " failed: " + e.getMessage(), e.getSQLState(), e);
+            }
+            System.out.println("Applied migration " + script);
+            appliedNow.add(version);
+        }
+        return appliedNow;
+    }
+
+    static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    static String descriptionOf(String script) {
+        return script.substring(script.indexOf("__") + 2, script.lastIndexOf('.')).replace('_', ' ');
+    }
+}
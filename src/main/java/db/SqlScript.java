@@ -0,0 +1,54 @@
+package db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs a classpath SQL script: one statement per ';'-terminated line, '--' comments skipped
+public class SqlScript {
+
+    public static void run(Connection connection, String resource) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : read(resource)) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    static List<String> read(String resource) {
+        InputStream in = SqlScript.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("SQL script not found: " + resource);
+        }
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read SQL script " + resource, e);
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,28 @@
+package models;
+
+/**
+ * Aggregate view of a user's cart for badges and checkout: how many units, how many
+ * distinct products and what they cost, without loading the lines themselves.
+ */
+public class CartSummary {
+    private final int itemCount;
+    private final int lineCount;
+    private final double total;
+
+    public CartSummary(int itemCount, int lineCount, double total) {
+        this.itemCount = itemCount;
+        this.lineCount = lineCount;
+        this.total = total;
+    }
+
+    public int getItemCount() { return itemCount; }
+    public int getLineCount() { return lineCount; }
+    public double getTotal() { return total; }
+
+    public boolean isEmpty() { return lineCount == 0; }
+
+    @Override
+    public String toString() {
+        return itemCount + " items in " + lineCount + " lines - $" + total;
+    }
+}
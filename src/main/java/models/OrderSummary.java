@@ -0,0 +1,31 @@
+package models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an order for order pickers: what a one-line summary shows,
+ * in plain fields rather than JavaFX properties.
+ */
+public class OrderSummary {
+    private final int id;
+    private final double total;
+    private final LocalDateTime orderDate;
+    private final OrderStatus status;
+
+    public OrderSummary(int id, double total, LocalDateTime orderDate, OrderStatus status) {
+        this.id = id;
+        this.total = total;
+        this.orderDate = orderDate;
+        this.status = status;
+    }
+
+    public int getId() { return id; }
+    public double getTotal() { return total; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public OrderStatus getStatus() { return status; }
+
+    @Override
+    public String toString() {
+        return "Order #" + id + " - $" + total + " on " + orderDate;
+    }
+}
@@ -0,0 +1,21 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderWithItems {
+    private final Order order;
+    private final List<OrderItem> items = new ArrayList<>();
+
+    public OrderWithItems(Order order) {
+        this.order = order;
+    }
+
+    public Order getOrder() { return order; }
+    public List<OrderItem> getItems() { return items; }
+
+    @Override
+    public String toString() {
+        return order + " with " + items.size() + " item(s)";
+    }
+}
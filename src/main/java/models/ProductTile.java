@@ -0,0 +1,33 @@
+package models;
+
+/**
+ * Read-only projection of a product for catalog tiles: only the columns a tile shows,
+ * in plain fields rather than JavaFX properties.
+ */
+public class ProductTile {
+    private final int id;
+    private final String name;
+    private final double price;
+    private final int stock;
+
+    public ProductTile(int id, String name, double price, int stock) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stock = stock;
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public double getPrice() { return price; }
+    public int getStock() { return stock; }
+
+    public boolean isInStock() {
+        return stock > 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + " ($" + price + ")";
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.ecommerce;
 
+import DAO.CatalogChangePoller;
 import util.SceneNavigator;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -14,6 +15,13 @@ public class MainApp extends Application {
         SceneNavigator.switchTo("/views/login.fxml");
         primaryStage.setTitle("E-Commerce App");
         primaryStage.show();
+        // Keeps cached products and categories in step with edits from other instances
+        CatalogChangePoller.start();
+    }
+
+    @Override
+    public void stop() {
+        CatalogChangePoller.stop();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,524 @@
+package util;
+
+import DAO.CategoryDAO;
+import DAO.ProductDAO;
+import db.DatabaseExecutor;
+import models.Category;
+import models.Product;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Imports a product catalog from a CSV file (with a header row) or an NDJSON file
+ * (one flat JSON object per line). Recognised columns are id, name, price, stock and
+ * either category (a name) or category_id. Rows with an id update that product, or
+ * insert it under that id if there is none; the rest are inserted. Categories named
+ * in the file but missing from the database are created.
+ *
+ * The file is read one batch of rows at a time: each batch is validated in parallel
+ * and written in one transaction, so memory use depends on the batch size and not on
+ * the size of the file. When a batch fails to write, its rows are written again one
+ * at a time, so that only the rows that fail on their own are rejected.
+ */
+public class CatalogImporter {
+    public static final int DEFAULT_BATCH_SIZE = ProductDAO.DEFAULT_BATCH_SIZE;
+    // Rejected rows beyond this are counted but their messages are dropped
+    private static final int MAX_ERRORS = 100;
+
+    private final ProductDAO productDAO;
+    private final CategoryDAO categoryDAO;
+    private final int adminId;
+    private final int batchSize;
+
+    // Lower-cased category name -> id, filled from the database on the first lookup
+    private Map<String, Integer> categoryIds;
+
+    public CatalogImporter(ProductDAO productDAO, CategoryDAO categoryDAO, int adminId) {
+        this(productDAO, categoryDAO, adminId, DEFAULT_BATCH_SIZE);
+    }
+
+    public CatalogImporter(ProductDAO productDAO, CategoryDAO categoryDAO, int adminId, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+        this.productDAO = productDAO;
+        this.categoryDAO = categoryDAO;
+        this.adminId = adminId;
+        this.batchSize = batchSize;
+    }
+
+    // Runs the import on DatabaseExecutor; progress is reported from that thread
+    public CompletableFuture<Progress> importFileAsync(Path file, Consumer<Progress> listener) {
+        return CompletableFuture.supplyAsync(() -> importFile(file, listener), DatabaseExecutor.get());
+    }
+
+    public Progress importFile(Path file, Consumer<Progress> listener) {
+        boolean ndjson = isNdjson(file);
+        long totalBytes;
+        try {
+            totalBytes = Files.size(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            totalBytes = -1;
+        }
+        Progress progress = new Progress(totalBytes);
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            if (!ndjson) {
+                String headerLine = reader.readLine();
+                if (headerLine == null) {
+                    return progress.finish(in.count);
+                }
+                header = parseCsvLine(stripBom(headerLine));
+                for (int i = 0; i < header.length; i++) {
+                    header[i] = header[i].trim().toLowerCase(Locale.ROOT);
+                }
+            }
+
+            List<RawRow> batch = new ArrayList<>(batchSize);
+            int lineNumber = ndjson ? 0 : 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(new RawRow(lineNumber, line));
+                if (batch.size() == batchSize) {
+                    importBatch(batch, header, progress);
+                    batch.clear();
+                    listener.accept(progress.snapshot(in.count));
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, header, progress);
+            }
+            return progress.finish(in.count);
+        } catch (IOException e) {
+            e.printStackTrace();
+            progress.reject(0, "Could not read " + file.getFileName() + ": " + e.getMessage());
+            return progress.finish(-1);
+        }
+    }
+
+    private void importBatch(List<RawRow> batch, String[] header, Progress progress) {
+        progress.rowsRead += batch.size();
+
+        // Parsing and validation need no database access, so they run in parallel
+        List<ParsedRow> parsed = batch.parallelStream()
+                .map(raw -> parse(raw, header))
+                .toList();
+
+        List<ParsedRow> inserts = new ArrayList<>();
+        List<ParsedRow> upserts = new ArrayList<>();
+        for (ParsedRow row : parsed) {
+            if (row.error != null) {
+                progress.reject(row.lineNumber, row.error);
+                continue;
+            }
+            if (row.categoryName != null) {
+                int categoryId = resolveCategory(row.categoryName);
+                if (categoryId <= 0) {
+                    progress.reject(row.lineNumber, "could not create category '" + row.categoryName + "'");
+                    continue;
+                }
+                row.product.setCategoryId(categoryId);
+            }
+            (row.product.getId() > 0 ? upserts : inserts).add(row);
+        }
+
+        write(inserts, false, progress);
+        write(upserts, true, progress);
+    }
+
+    // Writes rows as one batch, or one by one if the batch fails so that only the failing rows are rejected
+    private void write(List<ParsedRow> rows, boolean upsert, Progress progress) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (writeBatch(rows.stream().map(row -> row.product).toList(), upsert)) {
+            progress.imported += rows.size();
+            return;
+        }
+        if (rows.size() == 1) {
+            progress.reject(rows.get(0).lineNumber, (upsert ? "upsert" : "insert") + " failed (unknown category?)");
+            return;
+        }
+        for (ParsedRow row : rows) {
+            write(List.of(row), upsert, progress);
+        }
+    }
+
+    private boolean writeBatch(List<Product> products, boolean upsert) {
+        return upsert
+                ? productDAO.upsertProducts(products, batchSize)
+                : productDAO.createProducts(products, batchSize).size() == products.size();
+    }
+
+    private int resolveCategory(String name) {
+        if (categoryIds == null) {
+            categoryIds = new HashMap<>();
+            for (Category category : categoryDAO.getSnapshot().getCategories()) {
+                categoryIds.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+            }
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        Integer id = categoryIds.get(key);
+        if (id == null) {
+            id = categoryDAO.createCategory(new Category(0, name, adminId));
+            if (id <= 0) {
+                return -1;
+            }
+            categoryIds.put(key, id);
+        }
+        return id;
+    }
+
+    private static ParsedRow parse(RawRow raw, String[] header) {
+        Map<String, String> fields;
+        try {
+            fields = header == null ? parseJsonObject(raw.line) : toFields(header, parseCsvLine(raw.line));
+        } catch (IllegalArgumentException e) {
+            return ParsedRow.invalid(raw.lineNumber, e.getMessage());
+        }
+
+        String name = fields.get("name");
+        if (name == null || name.isBlank()) {
+            return ParsedRow.invalid(raw.lineNumber, "name is required");
+        }
+        if (name.length() > 100) {
+            return ParsedRow.invalid(raw.lineNumber, "name is longer than 100 characters");
+        }
+
+        Product product = new Product();
+        product.setName(name.trim());
+        try {
+            String id = fields.get("id");
+            product.setId(id == null || id.isBlank() ? 0 : Integer.parseInt(id.trim()));
+
+            String price = fields.get("price");
+            if (price == null || price.isBlank()) {
+                return ParsedRow.invalid(raw.lineNumber, "price is required");
+            }
+            product.setPrice(Double.parseDouble(price.trim()));
+
+            String stock = fields.get("stock");
+            product.setStock(stock == null || stock.isBlank() ? 0 : Integer.parseInt(stock.trim()));
+        } catch (NumberFormatException e) {
+            return ParsedRow.invalid(raw.lineNumber, "not a number: " + e.getMessage());
+        }
+        if (product.getPrice() < 0 || Double.isNaN(product.getPrice()) || Double.isInfinite(product.getPrice())) {
+            return ParsedRow.invalid(raw.lineNumber, "price must be a non-negative number");
+        }
+        if (product.getStock() < 0) {
+            return ParsedRow.invalid(raw.lineNumber, "stock must not be negative");
+        }
+
+        String categoryName = fields.get("category");
+        String categoryId = fields.get("category_id");
+        if (categoryName != null && !categoryName.isBlank()) {
+            return new ParsedRow(raw.lineNumber, product, categoryName.trim(), null);
+        }
+        if (categoryId == null || categoryId.isBlank()) {
+            return ParsedRow.invalid(raw.lineNumber, "category or category_id is required");
+        }
+        try {
+            product.setCategoryId(Integer.parseInt(categoryId.trim()));
+        } catch (NumberFormatException e) {
+            return ParsedRow.invalid(raw.lineNumber, "not a number: " + e.getMessage());
+        }
+        return new ParsedRow(raw.lineNumber, product, null, null);
+    }
+
+    private static Map<String, String> toFields(String[] header, String[] values) {
+        if (values.length > header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + values.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            fields.put(header[i], values[i]);
+        }
+        return fields;
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and "" escapes
+    static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(field.toString());
+        return values.toArray(new String[0]);
+    }
+
+    // A flat JSON object whose values are strings, numbers, booleans or null
+    static Map<String, String> parseJsonObject(String line) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] pos = {skipWhitespace(line, 0)};
+        expect(line, pos, '{');
+        if (peek(line, pos) == '}') {
+            pos[0]++;
+            return fields;
+        }
+        while (true) {
+            String key = readJsonString(line, pos);
+            expect(line, pos, ':');
+            pos[0] = skipWhitespace(line, pos[0]);
+            String value;
+            if (peek(line, pos) == '"') {
+                value = readJsonString(line, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < line.length() && ",} \t".indexOf(line.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = line.substring(start, pos[0]);
+                if (value.isEmpty() || value.startsWith("{") || value.startsWith("[")) {
+                    throw new IllegalArgumentException("unsupported value for \"" + key + "\"");
+                }
+                if (value.equals("null")) {
+                    value = null;
+                }
+            }
+            fields.put(key.toLowerCase(Locale.ROOT), value);
+            char next = peek(line, pos);
+            pos[0]++;
+            if (next == '}') {
+                return fields;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("expected ',' or '}' at column " + pos[0]);
+            }
+        }
+    }
+
+    private static String readJsonString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < line.length()) {
+            char c = line.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= line.length()) {
+                break;
+            }
+            char escaped = line.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n' -> value.append('\n');
+                case 't' -> value.append('\t');
+                case 'r' -> value.append('\r');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (pos[0] + 4 > line.length()) {
+                        throw new IllegalArgumentException("bad unicode escape");
+                    }
+                    value.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                }
+                default -> value.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("unterminated string");
+    }
+
+    private static void expect(String line, int[] pos, char expected) {
+        if (peek(line, pos) != expected) {
+            throw new IllegalArgumentException("expected '" + expected + "' at column " + (pos[0] + 1));
+        }
+        pos[0]++;
+    }
+
+    private static char peek(String line, int[] pos) {
+        pos[0] = skipWhitespace(line, pos[0]);
+        return pos[0] < line.length() ? line.charAt(pos[0]) : 0;
+    }
+
+    private static int skipWhitespace(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isNdjson(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json");
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    /**
+     * Counters for one import. The listener receives a snapshot after every batch, so
+     * it may hand it to another thread.
+     */
+    public static class Progress {
+        private final long totalBytes;
+        private final long startNanos;
+        private long bytesRead;
+        private long elapsedNanos;
+        private int rowsRead;
+        private int imported;
+        private int rejected;
+        private boolean done;
+        private final List<String> errors;
+
+        private Progress(long totalBytes) {
+            this.totalBytes = totalBytes;
+            this.startNanos = System.nanoTime();
+            this.errors = new ArrayList<>();
+        }
+
+        private Progress(Progress source, long bytesRead, boolean done) {
+            this.totalBytes = source.totalBytes;
+            this.startNanos = source.startNanos;
+            this.bytesRead = bytesRead;
+            this.elapsedNanos = System.nanoTime() - source.startNanos;
+            this.rowsRead = source.rowsRead;
+            this.imported = source.imported;
+            this.rejected = source.rejected;
+            this.done = done;
+            this.errors = List.copyOf(source.errors);
+        }
+
+        private void reject(int lineNumber, String message) {
+            reject(lineNumber, 1, message);
+        }
+
+        private void reject(int lineNumber, int rows, String message) {
+            rejected += rows;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(lineNumber > 0 ? "Line " + lineNumber + ": " + message : message);
+            }
+        }
+
+        private Progress snapshot(long bytesRead) {
+            return new Progress(this, bytesRead, false);
+        }
+
+        private Progress finish(long bytesRead) {
+            return new Progress(this, bytesRead < 0 ? this.bytesRead : bytesRead, true);
+        }
+
+        public int getRowsRead() { return rowsRead; }
+        public int getImported() { return imported; }
+        public int getRejected() { return rejected; }
+        public List<String> getErrors() { return errors; }
+        public boolean isDone() { return done; }
+
+        // Share of the file read so far, or -1 if its size is unknown
+        public double getFraction() {
+            return totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : -1;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rowsRead * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows read, %d imported, %d rejected (%.0f rows/s)",
+                    rowsRead, imported, rejected, getRowsPerSecond());
+        }
+    }
+
+    private static class RawRow {
+        final int lineNumber;
+        final String line;
+
+        RawRow(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    private static class ParsedRow {
+        final int lineNumber;
+        final Product product;
+        final String categoryName;
+        final String error;
+
+        ParsedRow(int lineNumber, Product product, String categoryName, String error) {
+            this.lineNumber = lineNumber;
+            this.product = product;
+            this.categoryName = categoryName;
+            this.error = error;
+        }
+
+        static ParsedRow invalid(int lineNumber, String error) {
+            return new ParsedRow(lineNumber, null, null, error);
+        }
+    }
+
+    // Counts the bytes handed to the reader so progress can be shown as a fraction
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package util;
+
+import DAO.Page;
+import models.Category;
+import models.Product;
+import models.ProductTile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A local copy of the catalog, memory-mapped for reading. The file is a header,
+ * fixed-width category and product records, and a heap holding every name as UTF-8:
+ *
+ *   header   magic, format, changeTime, category count, product count, heap offset, heap length
+ *   category id, adminId, name offset, name length                        (16 bytes)
+ *   product  id, categoryId, price, stock, name offset, name length       (28 bytes)
+ *
+ * Products are stored in id order, so a keyset page is a binary search followed by
+ * a scan, and nothing is decoded except the rows returned. changeTime is the
+ * database time the contents were read at; CatalogSnapshotStore refreshes from it.
+ */
+public class CatalogSnapshotFile {
+    private static final int MAGIC = 0x43415431; // "CAT1"
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int CATEGORY_SIZE = 16;
+    private static final int PRODUCT_SIZE = 28;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MappedByteBuffer buffer;
+    private final long changeTime;
+    private final int categoryCount;
+    private final int productCount;
+    private final int productsOffset;
+
+    private CatalogSnapshotFile(MappedByteBuffer buffer, long changeTime, int categoryCount, int productCount) {
+        this.buffer = buffer;
+        this.changeTime = changeTime;
+        this.categoryCount = categoryCount;
+        this.productCount = productCount;
+        this.productsOffset = HEADER_SIZE + categoryCount * CATEGORY_SIZE;
+    }
+
+    // Maps file read-only; throws IOException if it is not a complete snapshot
+    public static CatalogSnapshotFile open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog snapshot: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new IOException("Not a catalog snapshot: " + file);
+        }
+        int categoryCount = buffer.getInt(16);
+        int productCount = buffer.getInt(20);
+        int heapOffset = buffer.getInt(24);
+        int heapLength = buffer.getInt(28);
+        long recordsEnd = HEADER_SIZE + (long) categoryCount * CATEGORY_SIZE + (long) productCount * PRODUCT_SIZE;
+        if (categoryCount < 0 || productCount < 0 || heapOffset != recordsEnd
+                || (long) heapOffset + heapLength != buffer.capacity()) {
+            throw new IOException("Truncated catalog snapshot: " + file);
+        }
+        return new CatalogSnapshotFile(buffer, buffer.getLong(8), categoryCount, productCount);
+    }
+
+    /**
+     * Writes a snapshot to file. Products must come in ascending id order. Records
+     * are written as they arrive, and names go to a temporary file next to it that
+     * is appended at the end, so memory use does not grow with the number of
+     * products. Returns the number of products written.
+     */
+    public static int write(Path file, long changeTime, List<Category> categories, Iterator<Product> products) throws IOException {
+        Path heapFile = Files.createTempFile(file.toAbsolutePath().getParent(), "names-", ".tmp");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             FileChannel heapChannel = FileChannel.open(heapFile, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            NameHeap heap = new NameHeap(heapChannel);
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            channel.position(HEADER_SIZE);
+            for (Category category : categories) {
+                flushIfFull(channel, out, CATEGORY_SIZE);
+                out.putInt(category.getId()).putInt(category.getAdminId());
+                heap.put(out, category.getName());
+            }
+            int productCount = 0;
+            int lastId = Integer.MIN_VALUE;
+            while (products.hasNext()) {
+                Product product = products.next();
+                if (product.getId() <= lastId) {
+                    throw new IllegalArgumentException("Products out of id order at " + product.getId());
+                }
+                lastId = product.getId();
+                flushIfFull(channel, out, PRODUCT_SIZE);
+                out.putInt(product.getId()).putInt(product.getCategoryId())
+                        .putDouble(product.getPrice()).putInt(product.getStock());
+                heap.put(out, product.getName());
+                productCount++;
+            }
+            flush(channel, out);
+
+            long heapOffset = channel.position();
+            long heapLength = heap.finish();
+            if (heapOffset + heapLength > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot too large: " + file);
+            }
+            for (long copied = 0; copied < heapLength; ) {
+                copied += heapChannel.transferTo(copied, heapLength - copied, channel);
+            }
+
+            out.putInt(MAGIC).putInt(FORMAT).putLong(changeTime)
+                    .putInt(categories.size()).putInt(productCount)
+                    .putInt((int) heapOffset).putInt((int) heapLength)
+                    .putLong(0);
+            channel.position(0);
+            flush(channel, out);
+            channel.force(true);
+            return productCount;
+        } finally {
+            Files.deleteIfExists(heapFile);
+        }
+    }
+
+    // Names written through a buffer of their own; offsets are relative to the start of the heap
+    private static class NameHeap {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long size;
+
+        NameHeap(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Appends name and writes its offset and length to out
+        void put(ByteBuffer out, String name) throws IOException {
+            byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            if (size > Integer.MAX_VALUE - bytes.length) {
+                throw new IOException("Catalog snapshot names exceed 2 GB");
+            }
+            out.putInt((int) size).putInt(bytes.length);
+            size += bytes.length;
+            for (int at = 0; at < bytes.length; ) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - at);
+                buffer.put(bytes, at, length);
+                at += length;
+            }
+        }
+
+        // Writes out what is buffered and returns the heap's length
+        long finish() throws IOException {
+            flush(channel, buffer);
+            return size;
+        }
+    }
+
+    // Writes out what is buffered unless another record of this size still fits
+    private static void flushIfFull(FileChannel channel, ByteBuffer out, int recordSize) throws IOException {
+        if (out.remaining() < recordSize) {
+            flush(channel, out);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    public long getChangeTime() { return changeTime; }
+    public int getCategoryCount() { return categoryCount; }
+    public int getProductCount() { return productCount; }
+
+    // 0 for an empty snapshot
+    public int getMaxProductId() {
+        return productCount == 0 ? 0 : getProductId(productCount - 1);
+    }
+
+    public int getProductId(int index) {
+        return buffer.getInt(productAt(index));
+    }
+
+    // Position of the product with this id, or -1
+    public int indexOf(int id) {
+        int index = indexAfter(id - 1);
+        return index < productCount && getProductId(index) == id ? index : -1;
+    }
+
+    public List<Category> getCategories() {
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            int at = HEADER_SIZE + i * CATEGORY_SIZE;
+            categories.add(new Category(buffer.getInt(at), name(at + 8), buffer.getInt(at + 4)));
+        }
+        return categories;
+    }
+
+    // The product at this position in id order
+    public Product getProduct(int index) {
+        int at = productAt(index);
+        return new Product(buffer.getInt(at), name(at + 20), buffer.getDouble(at + 8),
+                buffer.getInt(at + 4), buffer.getInt(at + 16));
+    }
+
+    /**
+     * Same paging as ProductDAO.findTilePage and findTilePageByCategory: the products
+     * after afterId in id order, only those in categoryId unless it is null.
+     */
+    public Page<ProductTile> findTilePage(Integer categoryId, int afterId, int pageSize) {
+        List<ProductTile> tiles = new ArrayList<>();
+        for (int i = indexAfter(afterId); i < productCount && tiles.size() <= pageSize; i++) {
+            int at = productAt(i);
+            if (categoryId == null || buffer.getInt(at + 4) == categoryId) {
+                tiles.add(new ProductTile(buffer.getInt(at), name(at + 20), buffer.getDouble(at + 8), buffer.getInt(at + 16)));
+            }
+        }
+        if (tiles.size() > pageSize) {
+            return new Page<>(tiles.subList(0, pageSize), true);
+        }
+        return new Page<>(tiles, false);
+    }
+
+    // Position of the first product with an id greater than afterId
+    private int indexAfter(int afterId) {
+        int low = 0;
+        int high = productCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getProductId(mid) <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int productAt(int index) {
+        return productsOffset + index * PRODUCT_SIZE;
+    }
+
+    // Decodes the name whose offset and length are stored at position at
+    private String name(int at) {
+        byte[] bytes = new byte[buffer.getInt(at + 4)];
+        buffer.get(buffer.getInt(24) + buffer.getInt(at), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogSnapshotFile{changeTime=" + changeTime + ", categories=" + categoryCount
+                + ", products=" + productCount + '}';
+    }
+}
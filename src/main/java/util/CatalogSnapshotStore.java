@@ -0,0 +1,272 @@
+package util;
+
+import DAO.CatalogChangeDAO;
+import DAO.CategoryDAO;
+import DAO.ProductDAO;
+import db.DatabaseConnection;
+import db.DatabaseExecutor;
+import models.Category;
+import models.Product;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the local catalog snapshot (see CatalogSnapshotFile) in a directory, by
+ * default data/catalog (db.snapshot.dir). Each refresh writes a new file, named
+ * after its change time or just above the newest existing name, and then deletes
+ * the older ones, rather than overwriting a file that a screen may still have mapped.
+ *
+ * A refresh re-reads only what changed when it can: the products the change log
+ * lists since the snapshot's change time, inserts included, and the categories, a
+ * small table, in full. Once the log no longer reaches back that far every product
+ * is read again.
+ */
+public class CatalogSnapshotStore {
+    public static final String DEFAULT_DIR = "data/catalog";
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".snap";
+
+    private static CatalogSnapshotStore shared;
+
+    private final Path dir;
+    private final CategoryDAO categoryDAO;
+    private final ProductDAO productDAO;
+    private final CatalogChangeDAO changeDAO;
+    private CatalogSnapshotFile current;
+
+    public CatalogSnapshotStore(Path dir) {
+        this(dir, new CategoryDAO(), new ProductDAO(), new CatalogChangeDAO());
+    }
+
+    CatalogSnapshotStore(Path dir, CategoryDAO categoryDAO, ProductDAO productDAO, CatalogChangeDAO changeDAO) {
+        this.dir = dir;
+        this.categoryDAO = categoryDAO;
+        this.productDAO = productDAO;
+        this.changeDAO = changeDAO;
+    }
+
+    public static synchronized CatalogSnapshotStore shared() {
+        if (shared == null) {
+            String dir = DatabaseConnection.getSettings().getProperty("db.snapshot.dir", DEFAULT_DIR).trim();
+            shared = new CatalogSnapshotStore(Path.of(dir));
+        }
+        return shared;
+    }
+
+    // The newest readable snapshot, or null if there is none; reads no database
+    public synchronized CatalogSnapshotFile openLatest() {
+        if (current != null) {
+            return current;
+        }
+        for (Path file : snapshotFiles()) {
+            try {
+                current = CatalogSnapshotFile.open(file);
+                return current;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping unreadable catalog snapshot " + file + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Brings the snapshot up to date with the database and returns it: the same
+     * instance as before if nothing changed, and the previous snapshot (or null) if
+     * the database could not be read.
+     */
+    public synchronized CatalogSnapshotFile refresh() {
+        CatalogSnapshotFile previous = openLatest();
+        // Taken before anything is read, so a change made while reading is picked up next time
+        long changeTime = changeDAO.currentTime();
+        if (changeTime < 0) {
+            return previous;
+        }
+        List<Category> categories = categoryDAO.findAll();
+        Set<Integer> changed = previous == null ? null : changeDAO.findChangedProductIds(previous.getChangeTime());
+        long stamp = changeTime;
+        for (Path existing : snapshotFiles()) {
+            stamp = Math.max(stamp, stampOf(existing) + 1);
+        }
+        Path file = dir.resolve(PREFIX + stamp + SUFFIX);
+        Path temp = null;
+        try {
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, PREFIX, ".tmp");
+            boolean written = changed == null
+                    ? writeAll(temp, changeTime, categories)
+                    : writeChanges(temp, changeTime, categories, previous, changed);
+            if (!written) {
+                return previous;
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            current = CatalogSnapshotFile.open(file);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not refresh the catalog snapshot: " + e.getMessage());
+            return previous;
+        } finally {
+            deleteQuietly(temp);
+        }
+        for (Path old : snapshotFiles()) {
+            if (!old.equals(file)) {
+                deleteQuietly(old);
+            }
+        }
+        return current;
+    }
+
+    public CompletableFuture<CatalogSnapshotFile> refreshAsync() {
+        return CompletableFuture.supplyAsync(this::refresh, DatabaseExecutor.get());
+    }
+
+    // An empty catalog needs no local copy, and an empty read is as likely to be a failed one
+    private boolean writeAll(Path temp, long changeTime, List<Category> categories) throws IOException {
+        try (Stream<Product> products = productDAO.streamAll()) {
+            return CatalogSnapshotFile.write(temp, changeTime, categories, products.iterator()) > 0
+                    && !categories.isEmpty();
+        }
+    }
+
+    private boolean writeChanges(Path temp, long changeTime, List<Category> categories, CatalogSnapshotFile previous,
+                                 Set<Integer> changed) throws IOException {
+        // Products need a category, so no categories at all means the read failed
+        if (categories.isEmpty() && previous.getProductCount() > 0) {
+            return false;
+        }
+        List<Product> reread = productDAO.findByIds(changed);
+        if (reread == null) {
+            return false;
+        }
+        TreeMap<Integer, Product> updates = new TreeMap<>();
+        for (Product product : reread) {
+            updates.put(product.getId(), product);
+        }
+
+        if (!changesAnything(previous, categories, changed, updates)) {
+            return false;
+        }
+        CatalogSnapshotFile.write(temp, changeTime, categories, merge(previous, changed, updates));
+        return true;
+    }
+
+    // Whether the re-read rows differ from the snapshot; the log window overlaps the last refresh
+    private static boolean changesAnything(CatalogSnapshotFile previous, List<Category> categories,
+                                           Set<Integer> changed, TreeMap<Integer, Product> updates) {
+        if (!sameCategories(previous.getCategories(), categories)) {
+            return true;
+        }
+        for (int id : changed) {
+            int index = previous.indexOf(id);
+            Product fresh = updates.get(id);
+            if (index < 0 ? fresh != null : fresh == null || !sameProduct(previous.getProduct(index), fresh)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameCategories(List<Category> a, List<Category> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            Category x = a.get(i);
+            Category y = b.get(i);
+            if (x.getId() != y.getId() || x.getAdminId() != y.getAdminId() || !Objects.equals(x.getName(), y.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameProduct(Product x, Product y) {
+        return x.getCategoryId() == y.getCategoryId() && x.getStock() == y.getStock()
+                && Double.compare(x.getPrice(), y.getPrice()) == 0 && Objects.equals(x.getName(), y.getName());
+    }
+
+    // The snapshot's products in id order, changed ones replaced by (or dropped for lack of) their re-read row
+    private static Iterator<Product> merge(CatalogSnapshotFile previous, Set<Integer> changed, TreeMap<Integer, Product> updates) {
+        Iterator<Product> fresh = updates.values().iterator();
+        return new Iterator<>() {
+            private int index;
+            private Product update = fresh.hasNext() ? fresh.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                while (index < previous.getProductCount() && changed.contains(previous.getProductId(index))) {
+                    index++;
+                }
+                return index < previous.getProductCount() || update != null;
+            }
+
+            @Override
+            public Product next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (update != null && (index == previous.getProductCount() || update.getId() <= previous.getProductId(index))) {
+                    if (index < previous.getProductCount() && update.getId() == previous.getProductId(index)) {
+                        index++;
+                    }
+                    Product next = update;
+                    update = fresh.hasNext() ? fresh.next() : null;
+                    return next;
+                }
+                return previous.getProduct(index++);
+            }
+        };
+    }
+
+    // Snapshot files, newest first
+    private List<Path> snapshotFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path entry : entries) {
+                if (stampOf(entry) >= 0) {
+                    files.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list catalog snapshots: " + e.getMessage());
+        }
+        files.sort(Comparator.comparingLong(CatalogSnapshotStore::stampOf).reversed());
+        return files;
+    }
+
+    private static long stampOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // A file still mapped elsewhere may refuse to go on some platforms; the next refresh retries
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+}
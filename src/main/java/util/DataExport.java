@@ -0,0 +1,130 @@
+package util;
+
+import DAO.OrderDAO;
+import DAO.ProductDAO;
+import db.DatabaseConnection;
+import db.DatabaseExecutor;
+import models.OrderStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dumps Products, Orders or OrderItems to a CSV or NDJSON file (optionally .gz) by
+ * streaming the query cursor straight into an ExportWriter. Used by the admin
+ * dashboard and runnable on its own:
+ *
+ *   java util.DataExport products|orders|order-items FILE [--from DATE] [--to DATE] [--status STATUS]
+ *
+ * DATE is yyyy-MM-dd; --from is inclusive and --to exclusive. The filters only apply
+ * to orders and order items.
+ */
+public class DataExport {
+    public enum Dataset {
+        PRODUCTS("products"), ORDERS("orders"), ORDER_ITEMS("order-items");
+
+        private final String name;
+
+        Dataset(String name) {
+            this.name = name;
+        }
+
+        public static Dataset fromName(String name) {
+            for (Dataset dataset : values()) {
+                if (dataset.name.equalsIgnoreCase(name)) {
+                    return dataset;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dataset: " + name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final ProductDAO productDAO;
+    private final OrderDAO orderDAO;
+
+    public DataExport() {
+        this(new ProductDAO(), new OrderDAO());
+    }
+
+    public DataExport(ProductDAO productDAO, OrderDAO orderDAO) {
+        this.productDAO = productDAO;
+        this.orderDAO = orderDAO;
+    }
+
+    // Returns the number of rows written, or -1 if the export failed
+    public long export(Dataset dataset, Path file, LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        long rows;
+        try (ExportWriter writer = ExportWriter.open(file)) {
+            rows = switch (dataset) {
+                case PRODUCTS -> productDAO.exportProducts(writer);
+                case ORDERS -> orderDAO.exportOrders(from, to, status, writer);
+                case ORDER_ITEMS -> orderDAO.exportOrderItems(from, to, status, writer);
+            };
+        } catch (IOException e) {
+            e.printStackTrace();
+            rows = -1;
+        }
+        if (rows < 0) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return rows;
+    }
+
+    public CompletableFuture<Long> exportAsync(Dataset dataset, Path file, LocalDateTime from, LocalDateTime to,
+                                               OrderStatus status) {
+        return CompletableFuture.supplyAsync(() -> export(dataset, file, from, to, status), DatabaseExecutor.get());
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: DataExport products|orders|order-items FILE"
+                    + " [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--status PENDING|DELIVERED|CANCELED]");
+            System.exit(2);
+        }
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        OrderStatus status = null;
+        Dataset dataset;
+        try {
+            dataset = Dataset.fromName(args[0]);
+            for (int i = 2; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                switch (args[i]) {
+                    case "--from" -> from = LocalDate.parse(args[i + 1]).atStartOfDay();
+                    case "--to" -> to = LocalDate.parse(args[i + 1]).atStartOfDay();
+                    case "--status" -> status = OrderStatus.valueOf(args[i + 1].toUpperCase());
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        long rows = new DataExport().export(dataset, Path.of(args[1]), from, to, status);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        DatabaseConnection.closeConnection();
+        if (rows < 0) {
+            System.err.println("Export failed");
+            System.exit(1);
+        }
+        System.out.printf("Exported %d %s rows to %s in %.1fs%n", rows, dataset, args[1], seconds);
+    }
+}
@@ -0,0 +1,250 @@
+package util;
+
+import DAO.RowSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes export rows as CSV or NDJSON to a FileChannel, optionally gzip compressed.
+ * Each row is formatted into one reusable StringBuilder and encoded into a direct
+ * buffer that is written (or deflated) whenever it fills up, so the number of rows
+ * makes no difference to the memory used.
+ */
+public class ExportWriter implements RowSink, Closeable {
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ByteBuffer NO_INPUT = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final Format format;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder line = new StringBuilder(256);
+    private final ByteBuffer plain = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    // Only set for gzip output
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final ByteBuffer compressed;
+    private long uncompressedSize;
+
+    private String[] columns;
+    private boolean[] numeric;
+    private boolean closed;
+
+    public ExportWriter(FileChannel channel, Format format, boolean gzip) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        if (gzip) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            crc = new CRC32();
+            compressed = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            writeGzipHeader();
+        } else {
+            deflater = null;
+            crc = null;
+            compressed = null;
+        }
+    }
+
+    // Format and compression follow the file name: .csv, .ndjson or .jsonl, plus an optional .gz
+    public static ExportWriter open(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        Format format = name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")
+                ? Format.NDJSON : Format.CSV;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return new ExportWriter(channel, format, gzip);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void start(String[] columns, boolean[] numeric) throws IOException {
+        this.columns = columns.clone();
+        this.numeric = numeric.clone();
+        if (format == Format.CSV) {
+            line.setLength(0);
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) line.append(',');
+                appendCsv(columns[i]);
+            }
+            writeLine();
+        }
+    }
+
+    @Override
+    public void row(String[] values) throws IOException {
+        line.setLength(0);
+        if (format == Format.CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) line.append(',');
+                if (values[i] != null) appendCsv(values[i]);
+            }
+        } else {
+            line.append('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) line.append(',');
+                appendJsonString(columns[i]);
+                line.append(':');
+                if (values[i] == null) {
+                    line.append("null");
+                } else if (numeric[i]) {
+                    line.append(values[i]);
+                } else {
+                    appendJsonString(values[i]);
+                }
+            }
+            line.append('}');
+        }
+        writeLine();
+    }
+
+    private void appendCsv(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void appendJsonString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void writeLine() throws IOException {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, plain, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        encoder.reset();
+    }
+
+    // Hands the encoded bytes in plain to the channel (or the deflater) and empties it
+    private void drain() throws IOException {
+        plain.flip();
+        if (deflater == null) {
+            while (plain.hasRemaining()) {
+                channel.write(plain);
+            }
+        } else {
+            int start = plain.position();
+            crc.update(plain);
+            uncompressedSize += plain.position() - start;
+            plain.position(start);
+            deflater.setInput(plain);
+            while (!deflater.needsInput()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            // plain is about to be refilled, so the deflater must stop reading from it
+            deflater.setInput(NO_INPUT);
+        }
+        plain.clear();
+    }
+
+    private void deflate(int flush) throws IOException {
+        deflater.deflate(compressed, flush);
+        compressed.flip();
+        while (compressed.hasRemaining()) {
+            channel.write(compressed);
+        }
+        compressed.clear();
+    }
+
+    private void writeGzipHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(new byte[]{0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff});
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void writeGzipTrailer() throws IOException {
+        ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt((int) crc.getValue());
+        trailer.putInt((int) uncompressedSize);
+        trailer.flip();
+        while (trailer.hasRemaining()) {
+            channel.write(trailer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drain();
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+                writeGzipTrailer();
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            channel.close();
+        }
+    }
+}
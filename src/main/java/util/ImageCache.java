@@ -0,0 +1,234 @@
+package util;
+
+import db.DatabaseConnection;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads images for small ImageViews such as profile pictures. Each image is decoded
+ * on a background thread at the size it is shown at, never at full resolution, and
+ * kept in an LRU cache bounded by decoded bytes (4 per pixel) rather than by count.
+ * Decoded thumbnails are also written to a ThumbnailStore, so later runs skip the
+ * original file altogether. Concurrent requests for the same image share one load.
+ *
+ * The shared instance holds up to db.cache.images.maxBytes (default 16 MB; 0 keeps
+ * nothing in memory) and stores thumbnails in db.cache.images.dir (default
+ * data/thumbnails; empty disables them).
+ */
+public class ImageCache {
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    public static final String DEFAULT_DIR = "data/thumbnails";
+    private static final int LOADER_THREADS = 2;
+
+    private static volatile ImageCache shared;
+
+    private final long maxBytes;
+    private final ThumbnailStore thumbnails;
+    private final Executor executor;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // All three are guarded by this
+    private final Map<String, CompletableFuture<Image>> loading = new HashMap<>();
+    private final LinkedHashMap<String, Image> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    // thumbnails may be null to decode every image from its source
+    public ImageCache(long maxBytes, ThumbnailStore thumbnails) {
+        this(maxBytes, thumbnails, createExecutor());
+    }
+
+    ImageCache(long maxBytes, ThumbnailStore thumbnails, Executor executor) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.thumbnails = thumbnails;
+        this.executor = executor;
+    }
+
+    public static ImageCache shared() {
+        ImageCache current = shared;
+        if (current == null) {
+            synchronized (ImageCache.class) {
+                current = shared;
+                if (current == null) {
+                    Properties settings = DatabaseConnection.getSettings();
+                    String dir = settings.getProperty("db.cache.images.dir", DEFAULT_DIR).trim();
+                    current = new ImageCache(
+                            Long.parseLong(settings.getProperty("db.cache.images.maxBytes", String.valueOf(DEFAULT_MAX_BYTES)).trim()),
+                            dir.isEmpty() ? null : new ThumbnailStore(Path.of(dir)));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The image at url scaled to fit within width x height, keeping its aspect ratio.
+     * Completes with null if it could not be loaded, on a loader thread unless the
+     * image was already cached, so callers hand the result to Platform.runLater.
+     */
+    public CompletableFuture<Image> load(String url, int width, int height) {
+        String key = keyOf(url, width, height);
+        CompletableFuture<Image> pending;
+        synchronized (this) {
+            Image cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(cached);
+            }
+            misses.incrementAndGet();
+            pending = loading.get(key);
+            if (pending != null) {
+                return pending;
+            }
+            pending = new CompletableFuture<>();
+            loading.put(key, pending);
+        }
+        CompletableFuture<Image> load = pending;
+        try {
+            executor.execute(() -> load.complete(loadAndCache(url, width, height, key)));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                loading.remove(key);
+            }
+            load.complete(null);
+        }
+        return load;
+    }
+
+    private Image loadAndCache(String url, int width, int height, String key) {
+        Image image = null;
+        try {
+            image = decode(url, width, height, key);
+        } catch (RuntimeException e) {
+            System.err.println("Could not load image " + url + ": " + e.getMessage());
+        }
+        synchronized (this) {
+            loading.remove(key);
+            if (image != null) {
+                put(key, image);
+            }
+        }
+        return image;
+    }
+
+    private Image decode(String url, int width, int height, String key) {
+        loads.incrementAndGet();
+        long modified = lastModified(url);
+        if (thumbnails != null) {
+            ThumbnailStore.Pixels pixels = thumbnails.read(key, modified);
+            if (pixels != null) {
+                return toImage(pixels);
+            }
+        }
+        // Scaled while decoding, so the full-size bitmap is never held
+        Image image = new Image(url, width, height, true, true, false);
+        if (image.isError()) {
+            System.err.println("Could not load image " + url + ": " + image.getException());
+            return null;
+        }
+        if (thumbnails != null && image.getPixelReader() != null) {
+            thumbnails.write(key, modified, pixelsOf(image));
+        }
+        return image;
+    }
+
+    // Keeps image, evicting the least recently used ones beyond maxBytes; one bigger than that is not kept
+    synchronized void put(String key, Image image) {
+        long size = sizeOf(image);
+        if (size > maxBytes) {
+            return;
+        }
+        Image replaced = entries.put(key, image);
+        if (replaced != null) {
+            bytes -= sizeOf(replaced);
+        }
+        bytes += size;
+        Iterator<Image> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= sizeOf(eldest.next());
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    static String keyOf(String url, int width, int height) {
+        return width + "x" + height + " " + url;
+    }
+
+    static long sizeOf(Image image) {
+        return (long) Math.ceil(image.getWidth()) * (long) Math.ceil(image.getHeight()) * 4;
+    }
+
+    // A file: URL's modification time, so an edited file is not served from its old thumbnail; 0 otherwise
+    private static long lastModified(String url) {
+        try {
+            URI uri = URI.create(url);
+            if ("file".equalsIgnoreCase(uri.getScheme())) {
+                return Files.getLastModifiedTime(Path.of(uri)).toMillis();
+            }
+        } catch (IllegalArgumentException | FileSystemNotFoundException | IOException e) {
+            System.err.println("Could not check " + url + ": " + e.getMessage());
+        }
+        return 0;
+    }
+
+    private static ThumbnailStore.Pixels pixelsOf(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] argb = new int[width * height];
+        PixelReader reader = image.getPixelReader();
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        return new ThumbnailStore.Pixels(width, height, argb);
+    }
+
+    private static Image toImage(ThumbnailStore.Pixels pixels) {
+        WritableImage image = new WritableImage(pixels.getWidth(), pixels.getHeight());
+        image.getPixelWriter().setPixels(0, 0, pixels.getWidth(), pixels.getHeight(),
+                PixelFormat.getIntArgbInstance(), pixels.getArgb(), 0, pixels.getWidth());
+        return image;
+    }
+
+    private static Executor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "image-loader-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public synchronized int getSize() { return entries.size(); }
+    public synchronized long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    // Decodes actually run; lower than misses when concurrent misses shared a load
+    public long getLoads() { return loads.get(); }
+    public long getEvictions() { return evictions.get(); }
+}
@@ -0,0 +1,89 @@
+package util;
+
+import org.mindrot.jbcrypt.BCrypt;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt hashing and verification. Each check takes around 100ms of CPU by design,
+ * so the *Async methods run it on a small dedicated pool rather than on the FX thread
+ * or the database executor. Both the pool and its queue are bounded: a burst of
+ * logins beyond them fails fast with RejectedExecutionException instead of starving
+ * other work.
+ */
+public class PasswordHasher {
+    static final int QUEUE_SIZE = 32;
+
+    private static volatile ExecutorService executor = null;
+
+    public static ExecutorService get() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (PasswordHasher.class) {
+                current = executor;
+                if (current == null) {
+                    current = create(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), QUEUE_SIZE);
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static void shutdown() {
+        ExecutorService current;
+        synchronized (PasswordHasher.class) {
+            current = executor;
+            executor = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    public static String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt());
+    }
+
+    // False for a wrong password and for a stored value that is not a BCrypt hash
+    public static boolean verify(String password, String hash) {
+        if (password == null || hash == null) {
+            return false;
+        }
+        try {
+            return BCrypt.checkpw(password, hash);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Stored password is not a valid BCrypt hash");
+            return false;
+        }
+    }
+
+    public static CompletableFuture<Boolean> verifyAsync(String password, String hash) {
+        return verifyAsync(password, hash, get());
+    }
+
+    static CompletableFuture<Boolean> verifyAsync(String password, String hash, ExecutorService pool) {
+        try {
+            return CompletableFuture.supplyAsync(() -> verify(password, hash), pool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    static ExecutorService create(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), task -> {
+                    Thread thread = new Thread(task, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
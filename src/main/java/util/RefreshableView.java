@@ -0,0 +1,11 @@
+package util;
+
+/**
+ * Implemented by controllers whose views SceneNavigator may keep and show again
+ * instead of loading them anew. refresh() runs on the FX thread whenever a kept view
+ * is shown again, but not on the first show of a view that was just loaded or
+ * preloaded, and should re-read whatever may have changed meanwhile.
+ */
+public interface RefreshableView {
+    void refresh();
+}
@@ -1,25 +1,168 @@
 package util;
+import db.SessionContext;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import models.User;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Switches the main stage between FXML views by swapping the root of one Scene.
+ * Views whose controller implements RefreshableView are loaded once per signed-in
+ * user and kept, so showing one again costs a refresh() instead of parsing the FXML
+ * and building a new controller with new DAOs. Other views, such as the login and
+ * signup forms, are loaded fresh each time. preload() loads a likely next view on a
+ * background thread ahead of the switch.
+ *
+ * Run with -Dnavigator.timing=true to print how long each switch took.
+ */
 public class SceneNavigator {
+    private static final boolean PRINT_TIMING = Boolean.getBoolean("navigator.timing");
+
     private static Stage mainStage;
+    private static ExecutorService preloader;
+    // Kept and preloading views by FXML path, for the user in viewsUser; guarded by SceneNavigator.class
+    private static final Map<String, CompletableFuture<View>> views = new HashMap<>();
+    private static User viewsUser;
+    private static volatile long lastSwitchMillis = -1;
+
+    private static class View {
+        private final Parent root;
+        private final Object controller;
+        // Until first shown its controller's initialize() has just read everything, so it needs no refresh
+        private boolean fresh = true;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+
+        boolean isKept() {
+            return controller instanceof RefreshableView;
+        }
+    }
 
     public static void setMainStage(Stage stage) {
         mainStage = stage;
     }
 
     public static void switchTo(String fxmlPath) {
+        long start = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(SceneNavigator.class.getResource(fxmlPath));
-            Parent root = loader.load();
-            mainStage.setScene(new Scene(root));
-            mainStage.show();
+            View view = takeLoaded(fxmlPath);
+            boolean reused = view != null;
+            if (view == null) {
+                view = load(fxmlPath);
+                if (view.isKept()) {
+                    keep(fxmlPath, CompletableFuture.completedFuture(view));
+                }
+            } else if (view.isKept() && !view.fresh) {
+                ((RefreshableView) view.controller).refresh();
+            }
+            view.fresh = false;
+            show(view.root);
+            lastSwitchMillis = (System.nanoTime() - start) / 1_000_000;
+            if (PRINT_TIMING) {
+                System.out.println("Switched to " + fxmlPath + " in " + lastSwitchMillis + " ms"
+                        + (reused ? " (kept view)" : ""));
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
 
+    // Loads a view in the background so that switching to it later only has to show it
+    public static void preload(String fxmlPath) {
+        synchronized (SceneNavigator.class) {
+            dropViewsOfOtherUsers();
+            if (views.containsKey(fxmlPath)) {
+                return;
+            }
+            if (preloader == null) {
+                preloader = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "view-preloader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            views.put(fxmlPath, CompletableFuture.supplyAsync(() -> {
+                try {
+                    return load(fxmlPath);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, preloader));
+        }
+    }
+
+    // Milliseconds the last switchTo took, or -1 before the first
+    public static long getLastSwitchMillis() {
+        return lastSwitchMillis;
+    }
+
+    // A kept or preloaded view, waiting for a preload still running; null if there is none
+    private static View takeLoaded(String fxmlPath) {
+        CompletableFuture<View> loaded;
+        synchronized (SceneNavigator.class) {
+            dropViewsOfOtherUsers();
+            loaded = views.get(fxmlPath);
+        }
+        if (loaded == null) {
+            return null;
+        }
+        try {
+            View view = loaded.join();
+            if (!view.isKept()) {
+                forget(fxmlPath, loaded);
+            }
+            return view;
+        } catch (CompletionException e) {
+            e.printStackTrace();
+            forget(fxmlPath, loaded);
+            return null;
+        }
+    }
+
+    private static synchronized void keep(String fxmlPath, CompletableFuture<View> view) {
+        views.put(fxmlPath, view);
+    }
+
+    private static synchronized void forget(String fxmlPath, CompletableFuture<View> view) {
+        views.remove(fxmlPath, view);
+    }
+
+    // Kept views hold the data of the user they were loaded for
+    private static void dropViewsOfOtherUsers() {
+        User current = SessionContext.getCurrentUser();
+        if (current != viewsUser) {
+            views.clear();
+            viewsUser = current;
+        }
+    }
+
+    private static View load(String fxmlPath) throws IOException {
+        FXMLLoader loader = new FXMLLoader(SceneNavigator.class.getResource(fxmlPath));
+        Parent root = loader.load();
+        return new View(root, loader.getController());
+    }
+
+    private static void show(Parent root) {
+        Scene scene = mainStage.getScene();
+        if (scene == null) {
+            mainStage.setScene(new Scene(root));
+        } else {
+            scene.setRoot(root);
+            mainStage.sizeToScene();
+        }
+        mainStage.show();
+    }
+}
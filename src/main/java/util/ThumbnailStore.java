@@ -0,0 +1,120 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Downsampled images kept on disk between runs, so a large photo is decoded once
+ * rather than on every visit. Each thumbnail is one file of raw ARGB pixels after a
+ * small header: magic, width, height and the source's modification time, which must
+ * match for the thumbnail to be used.
+ */
+public class ThumbnailStore {
+    private static final int MAGIC = 0x54484D31; // "THM1"
+    private static final int HEADER_SIZE = 20;
+    private static final String SUFFIX = ".thumb";
+
+    private final Path dir;
+
+    public ThumbnailStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public static class Pixels {
+        private final int width;
+        private final int height;
+        private final int[] argb;
+
+        public Pixels(int width, int height, int[] argb) {
+            this.width = width;
+            this.height = height;
+            this.argb = argb;
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int[] getArgb() { return argb; }
+    }
+
+    // The stored pixels for key, or null if there are none or they are older than sourceModified
+    public Pixels read(String key, long sourceModified) {
+        Path file = fileFor(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            int width = buffer.getInt(4);
+            int height = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getLong(12) != sourceModified
+                    || width <= 0 || height <= 0 || (long) width * height * 4 != size - HEADER_SIZE) {
+                return null;
+            }
+            int[] argb = new int[width * height];
+            buffer.position(HEADER_SIZE);
+            buffer.asIntBuffer().get(argb);
+            return new Pixels(width, height, argb);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Could not read thumbnail " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Replaces the thumbnail for key; a failure only costs a decode next time
+    public void write(String key, long sourceModified, Pixels pixels) {
+        Path file = fileFor(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, "thumb-", ".tmp");
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + pixels.getArgb().length * 4);
+            buffer.putInt(MAGIC).putInt(pixels.getWidth()).putInt(pixels.getHeight()).putLong(sourceModified);
+            buffer.asIntBuffer().put(pixels.getArgb());
+            buffer.rewind();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write thumbnail " + file + ": " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    System.err.println("Could not delete " + temp + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Keys are URLs plus a size, so they are hashed into a safe file name
+    private Path fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return dir.resolve(HexFormat.of().formatHex(digest) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Seed data for the embedded H2 profiles, run after the migrations in
+-- db/migration have created the tables: admin/admin123 plus one category
+-- with a product, so a fresh database can be logged into and browsed straight away
+MERGE INTO Users (id, username, password, email, address, profile_pic, role)
+    KEY (id) VALUES (1, 'admin', '$2a$10$4PxWb0KK8ERs5mxCLKd7POkWokGgXVZ3RLhysTV7pJSvoGCN0l4Pi',
+                     'admin@example.com', '', '', 'ADMIN');
+MERGE INTO Categories (id, name, admin_id) KEY (id) VALUES (1, 'General', 1);
+MERGE INTO Products (id, name, price, category_id, stock) KEY (id) VALUES (1, 'Sample Product', 9.99, 1, 100);
+ALTER TABLE Users ALTER COLUMN id RESTART WITH (SELECT MAX(id) + 1 FROM Users);
+ALTER TABLE Categories ALTER COLUMN id RESTART WITH (SELECT MAX(id) + 1 FROM Categories);
+ALTER TABLE Products ALTER COLUMN id RESTART WITH (SELECT MAX(id) + 1 FROM Products);
@@ -0,0 +1,57 @@
+-- Baseline: the tables the DAOs use. IF NOT EXISTS lets this run against a
+-- database that was set up by hand before migrations existed.
+
+CREATE TABLE IF NOT EXISTS Users (
+    id          INT AUTO_INCREMENT PRIMARY KEY,
+    username    VARCHAR(50)  NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    email       VARCHAR(100),
+    address     VARCHAR(255),
+    profile_pic VARCHAR(512),
+    role        VARCHAR(10)  NOT NULL DEFAULT 'USER'
+);
+
+CREATE TABLE IF NOT EXISTS Categories (
+    id       INT AUTO_INCREMENT PRIMARY KEY,
+    name     VARCHAR(100) NOT NULL,
+    admin_id INT NOT NULL,
+    FOREIGN KEY (admin_id) REFERENCES Users(id)
+);
+
+CREATE TABLE IF NOT EXISTS Products (
+    id          INT AUTO_INCREMENT PRIMARY KEY,
+    name        VARCHAR(100)   NOT NULL,
+    price       DECIMAL(10, 2) NOT NULL,
+    category_id INT            NOT NULL,
+    stock       INT            NOT NULL DEFAULT 0,
+    FOREIGN KEY (category_id) REFERENCES Categories(id)
+);
+
+-- The composite key is what CartDAO.addToCart's ON DUPLICATE KEY UPDATE relies on
+CREATE TABLE IF NOT EXISTS Cart (
+    user_id    INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity   INT NOT NULL,
+    PRIMARY KEY (user_id, product_id),
+    FOREIGN KEY (user_id) REFERENCES Users(id),
+    FOREIGN KEY (product_id) REFERENCES Products(id)
+);
+
+CREATE TABLE IF NOT EXISTS Orders (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    user_id    INT            NOT NULL,
+    order_date TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    total      DECIMAL(10, 2) NOT NULL,
+    status     VARCHAR(20)    NOT NULL DEFAULT 'PENDING',
+    FOREIGN KEY (user_id) REFERENCES Users(id)
+);
+
+CREATE TABLE IF NOT EXISTS OrderItems (
+    order_id   INT            NOT NULL,
+    product_id INT            NOT NULL,
+    quantity   INT            NOT NULL,
+    price      DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (order_id, product_id),
+    FOREIGN KEY (order_id) REFERENCES Orders(id),
+    FOREIGN KEY (product_id) REFERENCES Products(id)
+);
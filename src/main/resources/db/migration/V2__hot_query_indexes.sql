@@ -0,0 +1,14 @@
+-- Indexes for the DAOs' hot lookups. Already covered, so not repeated here:
+--   OrderItems.order_id  by PRIMARY KEY (order_id, product_id)
+--   Cart.user_id         by PRIMARY KEY (user_id, product_id)
+--   Users.username       by its UNIQUE constraint
+
+-- ProductDAO.findByCategory and findPageByCategory (category_id = ? AND id > ? ORDER BY id)
+CREATE INDEX idx_products_category_id ON Products (category_id, id);
+
+-- OrderDAO.getOrdersByUser and getOrdersWithItems (user_id = ? and an order_date range, newest first)
+CREATE INDEX idx_orders_user_date ON Orders (user_id, order_date, id);
+
+-- OrderDAO.getOrdersPage and getOrdersWithItemsPage (keyset on order_date DESC, id DESC)
+CREATE INDEX idx_orders_date ON Orders (order_date, id);
+CREATE INDEX idx_orders_status_date ON Orders (status, order_date, id);
@@ -0,0 +1,13 @@
+-- Change log for cross-instance cache coherence: product and category writes append
+-- one row per changed id, and each running instance's CatalogChangePoller reads the
+-- rows after the last version it has seen.
+CREATE TABLE catalog_changes (
+    version    BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity     VARCHAR(20) NOT NULL,
+    entity_id  INT         NOT NULL,
+    origin     VARCHAR(36) NOT NULL,
+    changed_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- CatalogChangePoller.PRUNE (changed_at < ?)
+CREATE INDEX idx_catalog_changes_changed_at ON catalog_changes (changed_at);
@@ -7,7 +7,9 @@ import org.junit.jupiter.api.*;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -174,4 +176,65 @@ public class CartDAOTest {
         assertEquals(INITIAL_STOCK + 1,
                 cartDAO.getCartItems(testUserId).get(0).getQuantity());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCartSummaryAggregatesLines() {
+        CartSummary empty = cartDAO.getCartSummary(testUserId);
+        assertNotNull(empty);
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.getItemCount());
+        assertEquals(0.0, empty.getTotal(), 0.001);
+
+        Product secondProduct = new Product(
+                0,
+                "SecondProduct_" + UUID.randomUUID().toString().substring(0, 8),
+                5.00,
+                testCategoryId,
+                INITIAL_STOCK
+        );
+        int secondProductId = productDAO.createProduct(secondProduct);
+        cartDAO.addToCart(testUserId, testProductId, 2);
+        cartDAO.addToCart(testUserId, secondProductId, 3);
+
+        CartSummary summary = cartDAO.getCartSummary(testUserId);
+        assertEquals(2, summary.getLineCount());
+        assertEquals(5, summary.getItemCount());
+        assertEquals(PRODUCT_PRICE * 2 + 5.00 * 3, summary.getTotal(), 0.001);
+    }
+
+    @Test
+    void testBatchedAddSetAndRemove() {
+        Product secondProduct = new Product(
+                0,
+                "SecondProduct_" + UUID.randomUUID().toString().substring(0, 8),
+                PRODUCT_PRICE,
+                testCategoryId,
+                INITIAL_STOCK
+        );
+        int secondProductId = productDAO.createProduct(secondProduct);
+        cartDAO.addToCart(testUserId, testProductId, 1);
+
+        Map<Integer, Integer> lines = new LinkedHashMap<>();
+        lines.put(testProductId, 2);
+        lines.put(secondProductId, 4);
+        assertTrue(cartDAO.addItems(testUserId, lines));
+        CartSummary summary = cartDAO.getCartSummary(testUserId);
+        assertEquals(2, summary.getLineCount());
+        assertEquals(7, summary.getItemCount());
+
+        assertTrue(cartDAO.setQuantities(testUserId, Map.of(testProductId, 5, secondProductId, 1)));
+        assertEquals(6, cartDAO.getCartSummary(testUserId).getItemCount());
+
+        assertTrue(cartDAO.removeItems(testUserId, List.of(testProductId, secondProductId)));
+        assertTrue(cartDAO.getCartItems(testUserId).isEmpty());
+    }
+
+    @Test
+    void testMergeGuestCartAddsToExistingLines() {
+        cartDAO.addToCart(testUserId, testProductId, 2);
+
+        assertTrue(cartDAO.mergeGuestCart(testUserId, Map.of(testProductId, 3)));
+        assertEquals(5, cartDAO.getCartItems(testUserId).get(0).getQuantity());
+        assertTrue(cartDAO.mergeGuestCart(testUserId, Map.of()));
+    }
+}
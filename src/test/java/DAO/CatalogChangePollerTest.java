@@ -0,0 +1,152 @@
+package DAO;
+
+import db.ConnectionPool;
+import db.ConnectionRouter;
+import db.DatabaseConnection;
+import db.PoolConfig;
+import models.Category;
+import models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogChangePollerTest {
+    private static final String OTHER_INSTANCE = "other-instance";
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final IntFunction<Product> loader = id -> {
+        loads.incrementAndGet();
+        return new Product(id, "Product " + id, 1.0, 1, 1);
+    };
+    private ProductCache cache;
+    private CategoryDAO categoryDAO;
+    private CatalogChangePoller poller;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(100, 60_000);
+        categoryDAO = new CategoryDAO();
+        poller = new CatalogChangePoller(cache, categoryDAO);
+        assertEquals(0, poller.poll(), "the first poll only finds the end of the log");
+    }
+
+    @Test
+    void testForeignProductChangeInvalidatesCache() throws SQLException {
+        cache.get(42, loader);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            logChange(conn, CatalogChangeLog.PRODUCT, 42, OTHER_INSTANCE);
+            logChange(conn, CatalogChangeLog.PRODUCT, 43, CatalogChangeLog.ORIGIN);
+        }
+
+        assertEquals(1, poller.poll(), "changes made by this instance are skipped");
+        cache.get(42, loader);
+        assertEquals(2, loads.get());
+        assertEquals(0, poller.poll());
+    }
+
+    @Test
+    void testLateCommitBehindANewerVersionIsNotLost() throws SQLException {
+        cache.get(50, loader);
+        try (Connection slow = DatabaseConnection.getConnection();
+             Connection fast = DatabaseConnection.getConnection()) {
+            slow.setAutoCommit(false);
+            logChange(slow, CatalogChangeLog.PRODUCT, 50, OTHER_INSTANCE);
+            logChange(fast, CatalogChangeLog.PRODUCT, 51, OTHER_INSTANCE);
+
+            assertEquals(1, poller.poll());
+            assertFalse(poller.getGaps().isEmpty());
+
+            slow.commit();
+            slow.setAutoCommit(true);
+        }
+        assertEquals(1, poller.poll());
+        assertTrue(poller.getGaps().isEmpty());
+        cache.get(50, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testForeignCategoryChangeRefreshesSnapshot() throws SQLException {
+        categoryDAO.getSnapshot();
+        String name = "Remote_" + UUID.randomUUID().toString().substring(0, 8);
+        int id;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO Categories(name, admin_id) VALUES (?, 1)", Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, name);
+                stmt.executeUpdate();
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    assertTrue(rs.next());
+                    id = rs.getInt(1);
+                }
+            }
+            logChange(conn, CatalogChangeLog.CATEGORY, id, OTHER_INSTANCE);
+        }
+        try {
+            assertFalse(categoryDAO.getSnapshot().contains(id));
+            assertEquals(1, poller.poll());
+            Category refreshed = categoryDAO.getSnapshot().get(id);
+            assertNotNull(refreshed);
+            assertEquals(name, refreshed.getName());
+        } finally {
+            categoryDAO.deleteCategory(id);
+        }
+    }
+
+    @Test
+    void testPollingDoesNotKeepReadsOffTheReplica() throws SQLException {
+        try (ConnectionRouter router = new ConnectionRouter(node("primary"), List.of(node("replica")),
+                ConnectionRouter.Strategy.ROUND_ROBIN, 60_000)) {
+            CatalogChangePoller routed = new CatalogChangePoller(cache, categoryDAO, router, System::currentTimeMillis);
+            assertEquals(0, routed.poll());
+            try (Connection conn = router.getPrimary().borrow()) {
+                logChange(conn, CatalogChangeLog.PRODUCT, 42, OTHER_INSTANCE);
+            }
+            assertEquals(1, routed.poll());
+
+            try (Connection conn = router.borrowRead();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT name FROM Node")) {
+                assertTrue(rs.next());
+                assertEquals("replica", rs.getString(1), "polling is not a write of this session");
+            }
+        }
+    }
+
+    // A separate in-memory H2 database with a change log and its own name
+    private static ConnectionPool node(String name) throws SQLException {
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:node_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        config.setMinIdle(0);
+        config.setLeakDetectionThresholdMillis(0);
+        ConnectionPool pool = new ConnectionPool(config);
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE Node(name VARCHAR(20))");
+            stmt.execute("INSERT INTO Node VALUES ('" + name + "')");
+            stmt.execute("CREATE TABLE catalog_changes(version BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "entity VARCHAR(20) NOT NULL, entity_id INT NOT NULL, origin VARCHAR(36) NOT NULL, "
+                    + "changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+        return pool;
+    }
+
+    private static void logChange(Connection conn, String entity, int id, String origin) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO catalog_changes(entity, entity_id, origin) VALUES (?, ?, ?)")) {
+            stmt.setString(1, entity);
+            stmt.setInt(2, id);
+            stmt.setString(3, origin);
+            stmt.executeUpdate();
+        }
+    }
+}
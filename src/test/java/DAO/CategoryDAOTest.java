@@ -9,6 +9,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -125,4 +126,57 @@ public class CategoryDAOTest {
         assertEquals(expected.getAdminId(), actual.getAdminId(), "Admin ID mismatch");
         assertTrue(actual.getId() > 0, "ID should be generated");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSharedSnapshotFollowsWrites() {
+        // Unpinned, so writes commit and go through the shared snapshot
+        CategoryDAO sharedDAO = new CategoryDAO();
+        CategorySnapshot before = sharedDAO.getSnapshot();
+        assertSame(before, sharedDAO.getSnapshot(), "second read should not reload");
+
+        int id = sharedDAO.createCategory(createTestCategory());
+        try {
+            CategorySnapshot created = sharedDAO.getSnapshot();
+            assertTrue(created.getVersion() > before.getVersion());
+            assertEquals(uniqueCategoryName, created.get(id).getName());
+            assertFalse(before.contains(id), "old snapshots never change");
+
+            sharedDAO.updateCategory(new Category(id, "Renamed_" + uniqueCategoryName, TEST_ADMIN_ID));
+            assertEquals("Renamed_" + uniqueCategoryName, sharedDAO.getSnapshot().get(id).getName());
+        } finally {
+            sharedDAO.deleteCategory(id);
+        }
+        assertFalse(sharedDAO.getSnapshot().contains(id));
+    }
+
+    @Test
+    void testPinnedWritesInvalidateSharedSnapshot() {
+        CategoryDAO sharedDAO = new CategoryDAO();
+        CategorySnapshot shared = sharedDAO.getSnapshot();
+
+        int id = categoryDAO.createCategory(createTestCategory());
+        assertTrue(categoryDAO.getSnapshot().contains(id), "the pinned DAO sees its own uncommitted row");
+        assertNotSame(shared, sharedDAO.getSnapshot());
+        assertFalse(sharedDAO.getSnapshot().contains(id));
+    }
+
+    @Test
+    void testSnapshotLoadedDuringUncommittedWriteDoesNotOutliveTheCommit() throws SQLException {
+        CategoryDAO sharedDAO = new CategoryDAO();
+        int id = sharedDAO.createCategory(createTestCategory());
+        try {
+            new TransactionTemplate().execute(conn -> {
+                assertTrue(sharedDAO.updateCategory(new Category(id, "Renamed_" + uniqueCategoryName, TEST_ADMIN_ID)));
+                CategoryDAO.invalidateSnapshot();
+                // Another thread loads and installs the committed rows while this write is uncommitted
+                CategorySnapshot concurrent = CompletableFuture.supplyAsync(sharedDAO::getSnapshot).join();
+                assertEquals(uniqueCategoryName, concurrent.get(id).getName());
+                return null;
+            });
+
+            assertEquals("Renamed_" + uniqueCategoryName, sharedDAO.getSnapshot().get(id).getName());
+        } finally {
+            sharedDAO.deleteCategory(id);
+        }
+    }
+}
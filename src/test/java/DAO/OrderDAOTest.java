@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,6 +108,82 @@ public class OrderDAOTest {
         assertEquals(2, orderItems.get(0).getQuantity());
     }
 
+    @Test
+    void testStreamAllOrders() {
+        Order order = new Order(testUserId, PRODUCT_PRICE);
+        int orderId = orderDAO.createOrder(order, new ArrayList<>());
+
+        try (Stream<Order> orders = orderDAO.streamAllOrders()) {
+            assertTrue(orders.anyMatch(o -> o.getId() == orderId));
+        }
+    }
+
+    @Test
+    void testOrdersPageWalksNewestFirstWithoutGaps() {
+        List<Integer> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(orderDAO.createOrder(new Order(testUserId, PRODUCT_PRICE), new ArrayList<>()));
+        }
+
+        List<Order> seen = new ArrayList<>();
+        Page<Order> page = orderDAO.getOrdersPage(OrderStatus.PENDING, null, 2);
+        seen.addAll(page.getItems());
+        while (page.hasNext()) {
+            page = orderDAO.getOrdersPage(OrderStatus.PENDING, page.getLast(), 2);
+            seen.addAll(page.getItems());
+        }
+
+        List<Integer> ids = seen.stream().map(Order::getId).toList();
+        assertTrue(ids.containsAll(created));
+        assertEquals(ids.size(), ids.stream().distinct().count(), "Pages must not overlap");
+        for (int i = 1; i < seen.size(); i++) {
+            Order newer = seen.get(i - 1);
+            Order older = seen.get(i);
+            assertTrue(newer.getOrderDate().isAfter(older.getOrderDate())
+                    || (newer.getOrderDate().equals(older.getOrderDate()) && newer.getId() > older.getId()));
+        }
+    }
+
+    @Test
+    void testGetOrdersWithItemsGroupsItemsUnderOrders() {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(0, productDAO.findById(testProductId), 2, PRODUCT_PRICE));
+        int withItems = orderDAO.createOrder(new Order(testUserId, PRODUCT_PRICE * 2), items);
+        int withoutItems = orderDAO.createOrder(new Order(testUserId, 0), new ArrayList<>());
+
+        List<OrderWithItems> history = orderDAO.getOrdersWithItems(testUserId, null, null);
+
+        assertEquals(2, history.size());
+        for (OrderWithItems entry : history) {
+            if (entry.getOrder().getId() == withItems) {
+                assertEquals(1, entry.getItems().size());
+                assertEquals(testProductId, entry.getItems().get(0).getProduct().getId());
+                assertEquals(2, entry.getItems().get(0).getQuantity());
+            } else {
+                assertEquals(withoutItems, entry.getOrder().getId());
+                assertTrue(entry.getItems().isEmpty());
+            }
+        }
+        assertEquals(1, orderDAO.getOrderItems(withItems).size());
+        assertTrue(orderDAO.getOrdersWithItems(testUserId, LocalDateTime.now().plusDays(1), null).isEmpty());
+    }
+
+    @Test
+    void testPlaceOrderReportsOnlyShortLines() {
+        int scarceId = productDAO.createProduct(new Product(0, "Scarce", PRODUCT_PRICE, testCategoryId, 1));
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(0, productDAO.findById(testProductId), 2, PRODUCT_PRICE));
+        items.add(new OrderItem(0, productDAO.findById(scarceId), 3, PRODUCT_PRICE));
+
+        CheckoutResult result = orderDAO.placeOrder(new Order(testUserId, PRODUCT_PRICE * 5), items);
+
+        assertFalse(result.isPlaced());
+        assertEquals(1, result.getShortLines().size());
+        assertEquals(scarceId, result.getShortLines().get(0).getProductId());
+        assertEquals(1, result.getShortLines().get(0).getAvailable());
+        assertEquals(3, result.getShortLines().get(0).getRequested());
+    }
+
     @Test
     void testUpdateOrderStatus() {
         Order order = new Order(testUserId, PRODUCT_PRICE);
@@ -145,6 +222,20 @@ public class OrderDAOTest {
         assertEquals(2, userOrders.size(), "Should retrieve only orders for specified user");
     }
 
+    @Test
+    void testGetOrderSummariesNewestFirst() {
+        int first = orderDAO.createOrder(new Order(testUserId, PRODUCT_PRICE), new ArrayList<>());
+        int second = orderDAO.createOrder(new Order(testUserId, PRODUCT_PRICE * 2), new ArrayList<>());
+        orderDAO.updateOrderStatus(first, OrderStatus.DELIVERED);
+
+        List<OrderSummary> summaries = orderDAO.getOrderSummaries(testUserId);
+
+        assertEquals(List.of(second, first), summaries.stream().map(OrderSummary::getId).toList());
+        assertEquals(PRODUCT_PRICE * 2, summaries.get(0).getTotal(), 0.001);
+        assertEquals(OrderStatus.DELIVERED, summaries.get(1).getStatus());
+        assertNotNull(summaries.get(1).getOrderDate());
+    }
+
     @Test
     void testGetAllOrders() {
         int initialCount = orderDAO.getAllOrders().size();
@@ -0,0 +1,147 @@
+package DAO;
+
+import models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTest {
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final IntFunction<Product> loader = id -> {
+        loads.incrementAndGet();
+        return new Product(id, "Product " + id, 9.99, 1, 5);
+    };
+
+    @Test
+    void testHitsUntilTtlExpires() {
+        ProductCache cache = new ProductCache(10, 100, now::get);
+
+        assertEquals("Product 1", cache.get(1, loader).getName());
+        assertEquals("Product 1", cache.get(1, loader).getName());
+        assertEquals(1, loads.get());
+
+        now.addAndGet(100);
+        cache.get(1, loader);
+        assertEquals(2, loads.get());
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getExpirations());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        ProductCache cache = new ProductCache(2, 10_000, now::get);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);
+        cache.get(3, loader);
+
+        assertEquals(1, cache.getStats().getEvictions());
+        cache.get(1, loader);
+        assertEquals(3, loads.get(), "1 was used more recently than 2 and should have stayed");
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testInvalidateAndCopies() {
+        ProductCache cache = new ProductCache(10, 10_000, now::get);
+        cache.get(1, loader).setStock(0);
+        assertEquals(5, cache.get(1, loader).getStock(), "callers must not share the cached instance");
+
+        cache.invalidate(1);
+        cache.get(1, loader);
+        assertEquals(2, loads.get());
+        assertNull(cache.get(2, id -> null));
+        assertEquals(1, cache.getStats().getSize());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        ProductCache cache = new ProductCache(10, 10_000, now::get);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IntFunction<Product> slowLoader = id -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(id);
+        };
+
+        CompletableFuture<Product> first = CompletableFuture.supplyAsync(() -> cache.get(7, slowLoader));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Product> second = CompletableFuture.supplyAsync(() -> cache.get(7, slowLoader));
+        while (cache.getStats().getMisses() < 2) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals(7, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(7, second.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getLoads());
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotCached() throws Exception {
+        ProductCache cache = new ProductCache(10, 10_000, now::get);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Product> stale = CompletableFuture.supplyAsync(() -> cache.get(3, id -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(id);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.invalidate(3);
+        release.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testReadDuringUncommittedUpdateDoesNotOutliveTheCommit() throws SQLException {
+        ProductDAO productDAO = new ProductDAO();
+        productDAO.setCache(new ProductCache(10, 60_000));
+        int id = productDAO.createProduct(new Product(0, "Cached", 9.99, 1, 5));
+        assertTrue(id > 0);
+        try {
+            assertEquals(5, productDAO.findById(id).getStock());
+
+            new TransactionTemplate().execute(conn -> {
+                Product product = productDAO.findById(id);
+                product.setStock(2);
+                assertTrue(productDAO.updateProduct(product));
+                // Another thread sees and caches the committed row while this one is uncommitted
+                Product concurrent = CompletableFuture.supplyAsync(() -> productDAO.findById(id)).join();
+                assertEquals(5, concurrent.getStock());
+                return null;
+            });
+
+            assertEquals(2, productDAO.findById(id).getStock(), "the commit must drop what was cached before it");
+        } finally {
+            productDAO.deleteProduct(id);
+        }
+    }
+}
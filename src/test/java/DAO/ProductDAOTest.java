@@ -5,12 +5,16 @@ import DAO.ProductDAO;
 import db.DatabaseConnection;
 import models.Category;
 import models.Product;
+import models.ProductTile;
 import org.junit.jupiter.api.*;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,6 +62,121 @@ public class ProductDAOTest {
         assertProductEquals(product, found, productId);
     }
 
+    @Test
+    void testAsyncLoadsRunConcurrently() {
+        int productId = productDAO.createProduct(createTestProduct());
+
+        CompletableFuture<List<Product>> byCategory = productDAO.findByCategoryAsync(testCategoryId);
+        CompletableFuture<Product> byId = productDAO.findByIdAsync(productId);
+
+        assertEquals(1, byCategory.join().size());
+        assertEquals(productId, byId.join().getId());
+    }
+
+    @Test
+    void testStreamAllReadsRowsLazily() {
+        int first = productDAO.createProduct(createTestProduct());
+        int second = productDAO.createProduct(createTestProduct());
+
+        try (Stream<Product> products = productDAO.streamAll(1)) {
+            List<Integer> ids = products
+                    .filter(p -> p.getCategoryId() == testCategoryId)
+                    .map(Product::getId)
+                    .toList();
+            assertEquals(List.of(first, second), ids);
+        }
+    }
+
+    @Test
+    void testFindPageByCategorySeeksPastLastId() {
+        int first = productDAO.createProduct(createTestProduct());
+        int second = productDAO.createProduct(createTestProduct());
+        int third = productDAO.createProduct(createTestProduct());
+
+        Page<Product> page = productDAO.findPageByCategory(testCategoryId, 0, 2);
+        assertEquals(List.of(first, second), page.getItems().stream().map(Product::getId).toList());
+        assertTrue(page.hasNext());
+
+        Page<Product> next = productDAO.findPageByCategory(testCategoryId, page.getLast().getId(), 2);
+        assertEquals(List.of(third), next.getItems().stream().map(Product::getId).toList());
+        assertFalse(next.hasNext());
+    }
+
+    @Test
+    void testFindTilePageProjectsTileColumns() {
+        Product product = createTestProduct();
+        int first = productDAO.createProduct(product);
+        int second = productDAO.createProduct(createTestProduct());
+
+        Page<ProductTile> page = productDAO.findTilePageByCategory(testCategoryId, 0, 1);
+        assertEquals(List.of(first), page.getItems().stream().map(ProductTile::getId).toList());
+        assertTrue(page.hasNext());
+        ProductTile tile = page.getLast();
+        assertEquals(product.getName(), tile.getName());
+        assertEquals(product.getPrice(), tile.getPrice(), 0.001);
+        assertEquals(product.getStock(), tile.getStock());
+
+        Page<ProductTile> next = productDAO.findTilePage(first, 1);
+        assertEquals(second, next.getLast().getId());
+    }
+
+    @Test
+    void testCreateProductsReturnsIdsInOrder() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(new Product(0, "Bulk_" + i, 10.0 + i, testCategoryId, i));
+        }
+
+        List<Integer> ids = productDAO.createProducts(products, 2);
+
+        assertEquals(5, ids.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(ids.get(i), products.get(i).getId());
+            assertEquals("Bulk_" + i, productDAO.findById(ids.get(i)).getName());
+        }
+    }
+
+    @Test
+    void testUpdateProductsInBatches() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            products.add(new Product(0, "Bulk_" + i, 10.0, testCategoryId, 1));
+        }
+        productDAO.createProducts(products);
+        products.forEach(p -> p.setStock(42));
+
+        assertTrue(productDAO.updateProducts(products, 2));
+        for (Product product : products) {
+            assertEquals(42, productDAO.findById(product.getId()).getStock());
+        }
+    }
+
+    @Test
+    void testFailedCreateProductsLeavesIdsUnset() {
+        List<Product> products = List.of(
+                new Product(0, "Bulk_ok", 1.0, testCategoryId, 1),
+                new Product(0, "Bulk_bad", 1.0, -1, 1));
+
+        assertTrue(productDAO.createProducts(products, 1).isEmpty());
+        assertEquals(0, products.get(0).getId(), "the first batch was rolled back with the second");
+        assertEquals(0, products.get(1).getId());
+    }
+
+    @Test
+    void testBatchWritesRejectBatchSizeBelowOne() {
+        List<Product> products = List.of(new Product(1, "Bulk", 1.0, testCategoryId, 1));
+        assertThrows(IllegalArgumentException.class, () -> productDAO.createProducts(products, 0));
+        assertThrows(IllegalArgumentException.class, () -> productDAO.updateProducts(products, 0));
+        assertThrows(IllegalArgumentException.class, () -> productDAO.upsertProducts(products, -1));
+        assertFalse(TransactionTemplate.isActive());
+    }
+
+    @Test
+    void testUpdateProductsFailsForUnknownProduct() {
+        Product missing = new Product(Integer.MAX_VALUE, "Ghost", 1.0, testCategoryId, 1);
+        assertFalse(productDAO.updateProducts(List.of(missing)));
+    }
+
     @Test
     void testUpdateProduct() {
         Product product = createTestProduct();
@@ -161,6 +280,17 @@ public class ProductDAOTest {
         assertEquals(-1, productDAO.createProduct(invalidCategoryProduct), "Should fail to create with invalid category");
     }
 
+    @Test
+    void testFindByIdsSkipsMissingIds() {
+        int second = productDAO.createProduct(createTestProduct());
+        int first = productDAO.createProduct(createTestProduct());
+
+        List<Product> found = productDAO.findByIds(List.of(first, -1, second));
+        assertEquals(2, found.size());
+        assertEquals(Math.min(first, second), found.get(0).getId(), "results come back in id order");
+        assertTrue(productDAO.findByIds(List.of()).isEmpty());
+    }
+
     private Product createTestProduct() {
         return new Product(
                 0,
@@ -0,0 +1,73 @@
+package DAO;
+
+import models.OrderItem;
+import models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RowMappersTest {
+
+    private ResultSet resultSet(String... labels) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        return rs;
+    }
+
+    @Test
+    void testColumnsResolvedOncePerResultSet() throws SQLException {
+        ResultSet rs = resultSet("ID", "NAME", "PRICE", "CATEGORY_ID", "STOCK");
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getInt(1)).thenReturn(1, 2, 3);
+        when(rs.getString(2)).thenReturn("A", "B", "C");
+        when(rs.getDouble(3)).thenReturn(9.5);
+        when(rs.getInt(5)).thenReturn(7);
+
+        List<Product> products = new ProductDAO().mapAll(rs, RowMappers.PRODUCT);
+
+        assertEquals(List.of(1, 2, 3), products.stream().map(Product::getId).toList());
+        assertEquals("C", products.get(2).getName());
+        verify(rs, times(1)).getMetaData();
+        verify(rs, never()).getInt(anyString());
+        verify(rs, never()).getString(anyString());
+    }
+
+    @Test
+    void testDuplicateLabelsResolveToFirstColumn() throws SQLException {
+        // OrderItems oi.* followed by the joined product columns
+        ResultSet rs = resultSet("order_id", "product_id", "quantity", "price",
+                "id", "name", "productPrice", "category_id", "stock", "price");
+        when(rs.getInt(5)).thenReturn(9);
+        when(rs.getInt(3)).thenReturn(2);
+        when(rs.getDouble(4)).thenReturn(30.0);
+
+        OrderItem item = RowMappers.orderItem(4).bind(rs).mapRow(rs);
+
+        assertEquals(9, item.getProduct().getId());
+        assertEquals(2, item.getQuantity());
+        assertEquals(30.0, item.getPrice());
+        verify(rs, never()).getDouble(10);
+    }
+
+    @Test
+    void testMissingMetadataFallsBackToLabels() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("id")).thenReturn(3);
+        when(rs.getString("name")).thenReturn("Books");
+        when(rs.getInt("admin_id")).thenReturn(1);
+
+        assertEquals("Books", RowMappers.CATEGORY.mapRow(rs).getName());
+    }
+}
@@ -0,0 +1,146 @@
+package DAO;
+
+import models.Category;
+import models.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionTemplateTest {
+    private static final int TEST_ADMIN_ID = 1;
+
+    private CategoryDAO categoryDAO;
+    private ProductDAO productDAO;
+    private TransactionTemplate template;
+    private int categoryId = -1;
+    private int productId = -1;
+
+    @BeforeEach
+    void setUp() {
+        // Not pinned: both DAOs must pick up the connection bound by the template
+        categoryDAO = new CategoryDAO();
+        productDAO = new ProductDAO();
+        template = new TransactionTemplate();
+        template.setRetryBackoffMillis(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (productId > 0) {
+            productDAO.deleteProduct(productId);
+        }
+        if (categoryId > 0) {
+            categoryDAO.deleteCategory(categoryId);
+        }
+    }
+
+    @Test
+    void testWorkAcrossDaosCommitsOnce() throws SQLException {
+        template.execute(conn -> {
+            createCategoryAndProduct();
+            assertNotNull(productDAO.findById(productId), "Reads inside the transaction see its writes");
+            return null;
+        });
+
+        assertNotNull(categoryDAO.findById(categoryId));
+        assertNotNull(productDAO.findById(productId));
+    }
+
+    @Test
+    void testRollbackOnlyDiscardsWork() throws SQLException {
+        template.execute(conn -> {
+            createCategoryAndProduct();
+            TransactionTemplate.setRollbackOnly();
+            return null;
+        });
+
+        assertNull(productDAO.findById(productId));
+        assertNull(categoryDAO.findById(categoryId));
+        productId = -1;
+        categoryId = -1;
+    }
+
+    @Test
+    void testNestedExecuteJoinsOuterTransaction() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> template.execute(outer -> {
+            Connection inner = new TransactionTemplate().execute(conn -> {
+                createCategoryAndProduct();
+                return conn;
+            });
+            assertSame(outer, inner);
+            throw new IllegalStateException("abort outer transaction");
+        }));
+
+        assertFalse(TransactionTemplate.isActive());
+        assertNull(categoryDAO.findById(categoryId), "Inner work must roll back with the outer transaction");
+        categoryId = -1;
+        productId = -1;
+    }
+
+    @Test
+    void testErrorRollsBackInsteadOfCommitting() {
+        assertThrows(AssertionError.class, () -> template.execute(conn -> {
+            createCategoryAndProduct();
+            throw new AssertionError("failed half way");
+        }));
+
+        assertFalse(TransactionTemplate.isActive());
+        assertNull(productDAO.findById(productId), "Restoring autocommit must not commit the partial work");
+        assertNull(categoryDAO.findById(categoryId));
+        productId = -1;
+        categoryId = -1;
+    }
+
+    @Test
+    void testRetriesOnDeadlock() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        int result = template.execute(conn -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            }
+            return 42;
+        });
+
+        assertEquals(42, result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testOtherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(SQLException.class, () -> template.execute(conn -> {
+            attempts.incrementAndGet();
+            throw new SQLException("Duplicate entry", "23000");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testIsolationLevelAppliedInsideTransaction() throws SQLException {
+        template.setIsolationLevel(Connection.TRANSACTION_SERIALIZABLE);
+
+        int isolation = template.execute(Connection::getTransactionIsolation);
+
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, isolation);
+    }
+
+    private void createCategoryAndProduct() {
+        Category category = new Category();
+        category.setName("TxCategory_" + UUID.randomUUID().toString().substring(0, 8));
+        category.setAdminId(TEST_ADMIN_ID);
+        categoryId = categoryDAO.createCategory(category);
+        assertTrue(categoryId > 0);
+
+        productId = productDAO.createProduct(new Product(0, "TxProduct", 9.99, categoryId, 5));
+        assertTrue(productId > 0);
+    }
+}
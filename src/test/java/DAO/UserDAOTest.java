@@ -8,7 +8,9 @@ import org.junit.jupiter.api.*;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,6 +97,20 @@ public class UserDAOTest {
                 "Invalid credentials should fail");
     }
 
+    @Test
+    void testAuthenticateReturnsUser() throws Exception {
+        userDAO.createUser(testUser);
+
+        Optional<User> user = userDAO.authenticate(uniqueUsername, "testpass123");
+        assertTrue(user.isPresent());
+        assertEquals(testUser.getId(), user.get().getId());
+        assertTrue(userDAO.authenticate(uniqueUsername, "wrongpass").isEmpty());
+        assertTrue(userDAO.authenticate("missing_" + uniqueUsername, "testpass123").isEmpty());
+
+        Optional<User> async = userDAO.authenticateAsync(uniqueUsername, "testpass123").get(10, TimeUnit.SECONDS);
+        assertEquals(uniqueUsername, async.orElseThrow().getUsername());
+    }
+
     @Test
     void testDuplicateUsernamePrevention() {
         userDAO.createUser(testUser);
@@ -115,4 +115,15 @@ public class WhiteBoxCartDAOTest {
         when(connection.prepareStatement(anyString())).thenThrow(SQLException.class);
         assertFalse(cartDAO.clearCart(1));
     }
+
+    @Test
+    public void testRemoveItemsRollsBackWhenALineIsMissing() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(stmt);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(stmt.executeBatch()).thenReturn(new int[]{1, 0});
+        assertFalse(cartDAO.removeItems(1, List.of(2, 3)));
+        verify(stmt, times(2)).addBatch();
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
 }
@@ -33,9 +33,6 @@ class WhiteBoxOrderDAOTest {
     @Mock
     private Connection connection;
 
-    @Mock
-    private ProductDAO productDAO;
-
     @Mock
     private CartDAO cartDAO;
 
@@ -48,6 +45,12 @@ class WhiteBoxOrderDAOTest {
     @Mock
     private PreparedStatement updateStockStmt;
 
+    @Mock
+    private PreparedStatement lockStockStmt;
+
+    @Mock
+    private ResultSet lockStockRS;
+
     @Mock
     private PreparedStatement statusStmt;
 
@@ -60,6 +63,9 @@ class WhiteBoxOrderDAOTest {
     @Mock
     private PreparedStatement getOrderItemsStmt;
 
+    @Mock
+    private PreparedStatement recordChangeStmt;
+
     @Mock
     private ResultSet generatedKeysRS;
 
@@ -77,7 +83,9 @@ class WhiteBoxOrderDAOTest {
     private static final String INSERT_ORDER_ITEM_SQL =
             "INSERT INTO OrderItems(order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
     private static final String UPDATE_STOCK_SQL =
-            "UPDATE Products SET stock = stock - ? WHERE id = ?";
+            "UPDATE Products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String LOCK_STOCK_SQL =
+            "SELECT id, name, stock FROM Products WHERE id IN (?) ORDER BY id FOR UPDATE";
     private static final String UPDATE_STATUS_SQL =
             "UPDATE Orders SET status = ? WHERE id = ?";
     private static final String SELECT_BY_USER_SQL =
@@ -102,6 +110,10 @@ class WhiteBoxOrderDAOTest {
                 .thenReturn(insertOrderItemStmt);
         lenient().when(connection.prepareStatement(eq(UPDATE_STOCK_SQL)))
                 .thenReturn(updateStockStmt);
+        lenient().when(connection.prepareStatement(eq(LOCK_STOCK_SQL)))
+                .thenReturn(lockStockStmt);
+        lenient().when(lockStockStmt.executeQuery())
+                .thenReturn(lockStockRS);
         lenient().when(connection.prepareStatement(eq(UPDATE_STATUS_SQL)))
                 .thenReturn(statusStmt);
         lenient().when(connection.prepareStatement(eq(SELECT_BY_USER_SQL)))
@@ -111,6 +123,9 @@ class WhiteBoxOrderDAOTest {
         lenient().when(connection.prepareStatement(eq(SELECT_ITEMS_SQL)))
                 .thenReturn(getOrderItemsStmt);
 
+        lenient().when(connection.prepareStatement(eq(CatalogChangeLog.RECORD_CHANGE)))
+                .thenReturn(recordChangeStmt);
+
         lenient().when(insertOrderStmt.getGeneratedKeys())
                 .thenReturn(generatedKeysRS);
     }
@@ -122,7 +137,7 @@ class WhiteBoxOrderDAOTest {
         OrderItem item = new OrderItem(0, prod, 2, 50.0);
         List<OrderItem> items = Collections.singletonList(item);
 
-        when(productDAO.findById(1)).thenReturn(prod);
+        lockedStock(prod);
         when(insertOrderStmt.executeUpdate()).thenReturn(1);
         when(generatedKeysRS.next()).thenReturn(true);
         when(generatedKeysRS.getInt(1)).thenReturn(100);
@@ -142,7 +157,7 @@ class WhiteBoxOrderDAOTest {
     @Test
     void testCreateOrderInsufficientStock() throws Exception {
         Product prod = new Product(2, "P2", 30.0, 3, 1);
-        when(productDAO.findById(2)).thenReturn(prod);
+        lockedStock(prod);
         OrderItem item = new OrderItem(0, prod, 2, 30.0);
 
         int result = orderDAO.createOrder(new Order(2, 60.0), Collections.singletonList(item));
@@ -153,7 +168,7 @@ class WhiteBoxOrderDAOTest {
     @Test
     void testCreateOrderInsertOrderFailure() throws Exception {
         Product prod = new Product(3, "P3", 20.0, 4, 5);
-        when(productDAO.findById(3)).thenReturn(prod);
+        lockedStock(prod);
         when(insertOrderStmt.executeUpdate()).thenReturn(0);
         OrderItem item = new OrderItem(0, prod, 1, 20.0);
 
@@ -165,7 +180,7 @@ class WhiteBoxOrderDAOTest {
     @Test
     void testCreateOrderInsertItemsFailure() throws Exception {
         Product prod = new Product(4, "P4", 10.0, 5, 5);
-        when(productDAO.findById(4)).thenReturn(prod);
+        lockedStock(prod);
         when(insertOrderStmt.executeUpdate()).thenReturn(1);
         when(generatedKeysRS.next()).thenReturn(true);
         when(generatedKeysRS.getInt(1)).thenReturn(200);
@@ -180,7 +195,7 @@ class WhiteBoxOrderDAOTest {
     @Test
     void testCreateOrderUpdateStockFailure() throws Exception {
         Product prod = new Product(5, "P5", 15.0, 6, 5);
-        when(productDAO.findById(5)).thenReturn(prod);
+        lockedStock(prod);
         when(insertOrderStmt.executeUpdate()).thenReturn(1);
         when(generatedKeysRS.next()).thenReturn(true);
         when(generatedKeysRS.getInt(1)).thenReturn(300);
@@ -252,13 +267,51 @@ class WhiteBoxOrderDAOTest {
     void testGetOrderItems() throws Exception {
         when(getOrderItemsStmt.executeQuery()).thenReturn(orderItemsRS);
         when(orderItemsRS.next()).thenReturn(true, false);
-        Product prod = new Product(9, "P9", 30.0, 10, 5);
+        when(orderItemsRS.getInt("id")).thenReturn(9);
         when(orderItemsRS.getInt("quantity")).thenReturn(3);
         when(orderItemsRS.getDouble("price")).thenReturn(30.0);
-        when(productDAO.mapResultSetToProduct(orderItemsRS)).thenReturn(prod);
 
         List<OrderItem> items = orderDAO.getOrderItems(9);
         assertEquals(1, items.size());
         assertEquals(3, items.get(0).getQuantity());
+        assertEquals(9, items.get(0).getProduct().getId());
+    }
+
+    @Test
+    void testGetOrderItemsServedFromCacheOnRepeat() throws Exception {
+        when(getOrderItemsStmt.executeQuery()).thenReturn(orderItemsRS);
+        when(orderItemsRS.next()).thenReturn(true, false);
+        when(orderItemsRS.getInt("quantity")).thenReturn(3);
+
+        orderDAO.getOrderItems(9);
+        List<OrderItem> again = orderDAO.getOrderItems(9);
+
+        assertEquals(1, again.size());
+        verify(getOrderItemsStmt, times(1)).executeQuery();
+    }
+
+    @Test
+    void testCreateOrderReportsShortLines() throws Exception {
+        Product prod = new Product(7, "P7", 10.0, 1, 1);
+        lockedStock(prod);
+        OrderItem item = new OrderItem(0, prod, 3, 10.0);
+
+        CheckoutResult result = orderDAO.placeOrder(new Order(7, 30.0), Collections.singletonList(item));
+
+        assertFalse(result.isPlaced());
+        assertEquals(1, result.getShortLines().size());
+        assertEquals(7, result.getShortLines().get(0).getProductId());
+        assertEquals(3, result.getShortLines().get(0).getRequested());
+        assertEquals(1, result.getShortLines().get(0).getAvailable());
+        verify(connection, never()).prepareStatement(eq(INSERT_ORDER_SQL), anyInt());
+        verify(connection).rollback();
+    }
+
+    // The row returned by the SELECT ... FOR UPDATE stock check
+    private void lockedStock(Product prod) throws SQLException {
+        when(lockStockRS.next()).thenReturn(true, false);
+        when(lockStockRS.getInt(1)).thenReturn(prod.getId());
+        when(lockStockRS.getString(2)).thenReturn(prod.getName());
+        when(lockStockRS.getInt(3)).thenReturn(prod.getStock());
     }
 }
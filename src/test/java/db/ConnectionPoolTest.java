@@ -0,0 +1,108 @@
+package db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:pool_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        config.setMinIdle(0);
+        config.setMaxSize(2);
+        config.setAcquireTimeoutMillis(200);
+        config.setLeakDetectionThresholdMillis(0);
+        pool = new ConnectionPool(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testClosedConnectionIsReused() throws SQLException {
+        Connection first = pool.borrow();
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::createStatement);
+
+        Connection second = pool.borrow();
+        assertFalse(second.isClosed());
+        assertEquals(1, pool.getStats().getTotal(), "Physical connection should be reused");
+        second.close();
+    }
+
+    @Test
+    void testBorrowTimesOutWhenExhausted() throws SQLException {
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        assertEquals(1.0, pool.getStats().getUtilization());
+
+        assertThrows(SQLTimeoutException.class, pool::borrow);
+        assertEquals(1, pool.getStats().getTimeoutCount());
+
+        a.close();
+        b.close();
+        assertEquals(0, pool.getStats().getActive());
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    @Test
+    void testTransactionStateIsResetOnReturn() throws SQLException {
+        Connection conn = pool.borrow();
+        conn.setAutoCommit(false);
+        conn.setReadOnly(true);
+        conn.close();
+
+        Connection next = pool.borrow();
+        assertTrue(next.getAutoCommit());
+        assertFalse(next.isReadOnly());
+        next.close();
+    }
+
+    @Test
+    void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        try (Connection conn = pool.borrow()) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT ?")) {
+                    stmt.setInt(1, i);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        assertTrue(rs.next());
+                        assertEquals(i, rs.getInt(1));
+                    }
+                }
+            }
+            // Different generated-keys mode is a different cache entry
+            conn.prepareStatement("SELECT ?", Statement.RETURN_GENERATED_KEYS).close();
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals(2, stats.getStatementHits());
+        assertEquals(2, stats.getStatementMisses());
+    }
+
+    @Test
+    void testStatementInUseIsNotSharedAndEvictionIsCounted() throws SQLException {
+        pool.getConfig().setStatementCacheSize(1);
+        try (Connection conn = pool.borrow();
+             PreparedStatement outer = conn.prepareStatement("SELECT 1");
+             PreparedStatement inner = conn.prepareStatement("SELECT 1")) {
+            assertNotSame(outer, inner);
+            conn.prepareStatement("SELECT 2").close();
+            assertTrue(inner.executeQuery().next());
+        }
+        assertEquals(1, pool.getStats().getStatementEvictions());
+    }
+}
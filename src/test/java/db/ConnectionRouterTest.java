@@ -0,0 +1,125 @@
+package db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionRouterTest {
+    private ConnectionRouter router;
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) {
+            router.close();
+        }
+    }
+
+    @Test
+    void testReadsGoToReplicaUntilSessionWrites() throws SQLException {
+        router = new ConnectionRouter(node("primary"), List.of(node("replica")),
+                ConnectionRouter.Strategy.ROUND_ROBIN, 60_000);
+
+        assertEquals("replica", readNodeName());
+
+        write();
+        assertEquals("primary", readNodeName(), "Reads must see the session's own write");
+        assertEquals(1, router.getReplicaReads());
+        assertEquals(1, router.getPrimaryReads());
+    }
+
+    @Test
+    void testBorrowPrimaryDoesNotPinReadsToPrimary() throws SQLException {
+        router = new ConnectionRouter(node("primary"), List.of(node("replica")),
+                ConnectionRouter.Strategy.ROUND_ROBIN, 60_000);
+
+        try (Connection conn = router.borrowPrimary()) {
+            assertEquals("primary", nodeName(conn));
+        }
+        assertEquals("replica", readNodeName(), "Borrowing the primary without changing rows is not a write");
+
+        router.markWrite();
+        assertEquals("primary", readNodeName());
+    }
+
+    @Test
+    void testReadYourWritesWindowExpires() throws SQLException {
+        router = new ConnectionRouter(node("primary"), List.of(node("replica")),
+                ConnectionRouter.Strategy.ROUND_ROBIN, 0);
+
+        write();
+        assertEquals("replica", readNodeName());
+    }
+
+    @Test
+    void testRoundRobinAlternatesReplicas() throws SQLException {
+        router = new ConnectionRouter(node("primary"), List.of(node("a"), node("b")),
+                ConnectionRouter.Strategy.ROUND_ROBIN, 0);
+
+        assertEquals("a", readNodeName());
+        assertEquals("b", readNodeName());
+        assertEquals("a", readNodeName());
+    }
+
+    @Test
+    void testLeastLoadedSkipsBusyReplica() throws SQLException {
+        router = new ConnectionRouter(node("primary"), List.of(node("a"), node("b")),
+                ConnectionRouter.Strategy.LEAST_LOADED, 0);
+
+        try (Connection busy = router.borrowRead()) {
+            assertEquals("a", nodeName(busy));
+            assertEquals("b", readNodeName());
+        }
+        assertEquals("a", readNodeName());
+    }
+
+    @Test
+    void testWithoutReplicasReadsUsePrimary() throws SQLException {
+        router = new ConnectionRouter(node("primary"), List.of(),
+                ConnectionRouter.Strategy.ROUND_ROBIN, 0);
+
+        assertEquals("primary", readNodeName());
+    }
+
+    // What a DAO write does: a statement on the primary, then markWrite once it has changed rows
+    private void write() throws SQLException {
+        try (Connection conn = router.borrowPrimary(); Statement stmt = conn.createStatement()) {
+            assertEquals(1, stmt.executeUpdate("UPDATE Node SET name = name"));
+        }
+        router.markWrite();
+    }
+
+    private String readNodeName() throws SQLException {
+        try (Connection conn = router.borrowRead()) {
+            return nodeName(conn);
+        }
+    }
+
+    private String nodeName(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM Node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    // A separate in-memory H2 database that knows its own name
+    private ConnectionPool node(String name) throws SQLException {
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:node_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        config.setMinIdle(0);
+        config.setLeakDetectionThresholdMillis(0);
+        ConnectionPool pool = new ConnectionPool(config);
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE Node(name VARCHAR(20))");
+            stmt.execute("INSERT INTO Node VALUES ('" + name + "')");
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,78 @@
+package db;
+
+import DAO.CartDAO;
+import DAO.CatalogChangeDAO;
+import DAO.CatalogChangePoller;
+import DAO.CategoryDAO;
+import DAO.OrderDAO;
+import DAO.ProductDAO;
+import DAO.UserDAO;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    @Test
+    void testMigratesFreshDatabaseOnce() throws SQLException {
+        String url = "jdbc:h2:mem:migrate_" + UUID.randomUUID() + ";MODE=MySQL";
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            assertEquals(List.of(1, 2, 3), SchemaMigrator.migrate(conn));
+            assertEquals(List.of(), SchemaMigrator.migrate(conn), "Applied versions must not run again");
+
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT version, description FROM schema_version ORDER BY version")) {
+                assertTrue(rs.next());
+                assertEquals("baseline", rs.getString(2));
+                assertTrue(rs.next());
+                assertEquals("hot query indexes", rs.getString(2));
+                assertTrue(rs.next());
+                assertEquals("catalog changes", rs.getString(2));
+                assertFalse(rs.next());
+            }
+            assertTrue(indexNames(conn).containsAll(List.of(
+                    "IDX_PRODUCTS_CATEGORY_ID", "IDX_ORDERS_USER_DATE", "IDX_ORDERS_DATE", "IDX_ORDERS_STATUS_DATE", "IDX_CATALOG_CHANGES_CHANGED_AT")));
+        }
+    }
+
+    @Test
+    void testStartupAlreadyMigratedTheApplicationDatabase() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            assertEquals(List.of(), SchemaMigrator.migrate(conn));
+        }
+    }
+
+    @Test
+    void testDaoQueriesAvoidFullTableScans() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            List<String> fullScans = QueryPlanCheck.findFullScans(conn,
+                    CartDAO.class, CategoryDAO.class, OrderDAO.class, ProductDAO.class, UserDAO.class,
+                    CatalogChangePoller.class, CatalogChangeDAO.class);
+            // Listing every category is the point of this one; the exports walk the primary key instead
+            assertEquals(List.of("CategoryDAO.FIND_ALL"), fullScans);
+
+            assertTrue(QueryPlanCheck.isFullScan(conn, "SELECT * FROM Products WHERE name = ?"));
+            assertFalse(QueryPlanCheck.isFullScan(conn, "SELECT * FROM Orders WHERE user_id = ? ORDER BY order_date"));
+        }
+    }
+
+    private static List<String> indexNames(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+}
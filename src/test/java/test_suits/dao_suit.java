@@ -18,6 +18,8 @@ import org.junit.platform.suite.api.Suite;
     DAO.OrderDAOTest.class,
     DAO.ProductDAOTest.class,
     DAO.UserDAOTest.class,
+    DAO.TransactionTemplateTest.class,
+    DAO.RowMappersTest.class,
 
 })
 public class dao_suit {
@@ -0,0 +1,170 @@
+package util;
+
+import DAO.CategoryDAO;
+import DAO.ProductDAO;
+import db.DatabaseConnection;
+import models.Category;
+import models.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogImporterTest {
+    private ProductDAO productDAO;
+    private CategoryDAO categoryDAO;
+    private Connection testConnection;
+    private String suffix;
+    private final int TEST_ADMIN_ID = 1;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        testConnection = DatabaseConnection.getConnection();
+        testConnection.setAutoCommit(false);
+
+        productDAO = new ProductDAO();
+        productDAO.setConnection(testConnection);
+        categoryDAO = new CategoryDAO();
+        categoryDAO.setConnection(testConnection);
+
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        testConnection.rollback();
+        testConnection.close();
+    }
+
+    @Test
+    void testCsvImportCreatesMissingCategoriesAndRejectsBadRows() throws IOException {
+        Path file = tempDir.resolve("catalog.csv");
+        Files.writeString(file, """
+                name,price,stock,category
+                "Lamp, desk",19.5,4,Lighting_%1$s
+                Bulb,2.25,100,lighting_%1$s
+                ,1.00,1,Lighting_%1$s
+                Broken,abc,1,Lighting_%1$s
+                Shade,7,0,Decor_%1$s
+                """.formatted(suffix));
+
+        List<CatalogImporter.Progress> updates = new ArrayList<>();
+        CatalogImporter.Progress result = new CatalogImporter(productDAO, categoryDAO, TEST_ADMIN_ID, 2)
+                .importFile(file, updates::add);
+
+        assertTrue(result.isDone());
+        assertEquals(5, result.getRowsRead());
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("Line 4:"), result.getErrors().get(0));
+        assertEquals(1.0, result.getFraction());
+        assertEquals(2, updates.size(), "One progress report per full batch");
+
+        Category lighting = findCategory("Lighting_" + suffix);
+        assertNotNull(lighting, "Missing category should be created once");
+        assertNotNull(findCategory("Decor_" + suffix));
+        List<Product> lamps = productDAO.findByCategory(lighting.getId());
+        assertEquals(2, lamps.size());
+        assertTrue(lamps.stream().anyMatch(p -> p.getName().equals("Lamp, desk") && p.getStock() == 4));
+    }
+
+    @Test
+    void testNdjsonImportUpdatesRowsWithId() throws IOException {
+        int categoryId = categoryDAO.createCategory(new Category(0, "Import_" + suffix, TEST_ADMIN_ID));
+        int productId = productDAO.createProduct(new Product(0, "Old name", 1.0, categoryId, 1));
+
+        Path file = tempDir.resolve("catalog.ndjson");
+        Files.writeString(file, """
+                {"id": %d, "name": "New \\"name\\"", "price": 3.5, "stock": 8, "category_id": %d}
+                {"name": "Fresh", "price": 1, "category_id": %d, "note": null}
+                """.formatted(productId, categoryId, categoryId));
+
+        CatalogImporter.Progress result = new CatalogImporter(productDAO, categoryDAO, TEST_ADMIN_ID)
+                .importFile(file, progress -> {});
+
+        assertEquals(2, result.getImported(), String.valueOf(result.getErrors()));
+        Product updated = productDAO.findById(productId);
+        assertEquals("New \"name\"", updated.getName());
+        assertEquals(8, updated.getStock());
+        assertEquals(2, productDAO.findByCategory(categoryId).size());
+    }
+
+    // On committed rows: a failed batch rolls back its whole connection, and the pinned one holds the test's setup
+    @Test
+    void testRowsWithUnknownIdsAreInsertedAndOnlyFailingRowsRejected() throws IOException {
+        ProductDAO products = new ProductDAO();
+        CategoryDAO categories = new CategoryDAO();
+        int categoryId = categories.createCategory(new Category(0, "Upsert_" + suffix, TEST_ADMIN_ID));
+        int knownId = products.createProduct(new Product(0, "Known", 1.0, categoryId, 1));
+        int unknownId = knownId + 1000;
+        try {
+            assertNull(products.findById(unknownId));
+
+            Path file = tempDir.resolve("catalog.csv");
+            Files.writeString(file, """
+                    id,name,price,stock,category_id
+                    %1$d,Known renamed,2.5,7,%3$d
+                    %2$d,Brand new,4,3,%3$d
+                    %4$d,No such category,1,1,-1
+                    """.formatted(knownId, unknownId, categoryId, unknownId + 1));
+
+            CatalogImporter.Progress result = new CatalogImporter(products, categories, TEST_ADMIN_ID)
+                    .importFile(file, progress -> {});
+
+            assertEquals(2, result.getImported(), String.valueOf(result.getErrors()));
+            assertEquals(1, result.getRejected());
+            assertTrue(result.getErrors().get(0).startsWith("Line 4:"), result.getErrors().get(0));
+            Product updated = products.findById(knownId);
+            assertEquals("Known renamed", updated.getName());
+            assertEquals(7, updated.getStock());
+            Product inserted = products.findById(unknownId);
+            assertNotNull(inserted, "a row whose id does not exist yet is inserted under it");
+            assertEquals("Brand new", inserted.getName());
+            assertNull(products.findById(unknownId + 1));
+        } finally {
+            products.deleteProduct(knownId);
+            products.deleteProduct(unknownId);
+            categories.deleteCategory(categoryId);
+        }
+    }
+
+    @Test
+    void testBatchSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogImporter(productDAO, categoryDAO, TEST_ADMIN_ID, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogImporter(productDAO, categoryDAO, TEST_ADMIN_ID, -1));
+    }
+
+    @Test
+    void testParsers() {
+        assertArrayEquals(new String[]{"a", "b,c", "say \"hi\"", ""},
+                CatalogImporter.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> CatalogImporter.parseCsvLine("\"open"));
+
+        Map<String, String> fields = CatalogImporter.parseJsonObject("{\"Name\":\"x\\u0041\", \"price\" : 2.5 ,\"flag\":true}");
+        assertEquals("xA", fields.get("name"));
+        assertEquals("2.5", fields.get("price"));
+        assertEquals("true", fields.get("flag"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogImporter.parseJsonObject("{\"a\": [1]}"));
+    }
+
+    private Category findCategory(String name) {
+        return categoryDAO.findAll().stream()
+                .filter(c -> c.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,112 @@
+package util;
+
+import DAO.Page;
+import models.Category;
+import models.Product;
+import models.ProductTile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotFileTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path file = tempDir.resolve("catalog.snap");
+        List<Category> categories = List.of(new Category(1, "Books", 7), new Category(2, "Café", 7));
+        List<Product> products = List.of(
+                new Product(3, "Novel", 12.5, 1, 4),
+                new Product(8, "Crème brûlée", 3.25, 2, 0));
+
+        assertEquals(2, CatalogSnapshotFile.write(file, 1234L, categories, products.iterator()));
+        CatalogSnapshotFile snapshot = CatalogSnapshotFile.open(file);
+
+        assertEquals(1234L, snapshot.getChangeTime());
+        assertEquals(8, snapshot.getMaxProductId());
+        List<Category> read = snapshot.getCategories();
+        assertEquals(2, read.size());
+        assertEquals("Café", read.get(1).getName());
+        assertEquals(7, read.get(1).getAdminId());
+
+        Product product = snapshot.getProduct(snapshot.indexOf(8));
+        assertEquals("Crème brûlée", product.getName());
+        assertEquals(3.25, product.getPrice());
+        assertEquals(2, product.getCategoryId());
+        assertEquals(0, product.getStock());
+        assertEquals(-1, snapshot.indexOf(5));
+    }
+
+    @Test
+    void testTilePagesMatchKeysetPaging() throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            products.add(new Product(id, "Product " + id, id, id % 2 == 0 ? 1 : 2, id));
+        }
+        Path file = tempDir.resolve("catalog.snap");
+        CatalogSnapshotFile.write(file, 0, List.of(new Category(1, "Even", 1), new Category(2, "Odd", 1)), products.iterator());
+        CatalogSnapshotFile snapshot = CatalogSnapshotFile.open(file);
+
+        Page<ProductTile> first = snapshot.findTilePage(null, 0, 30);
+        assertEquals(30, first.getItems().size());
+        assertTrue(first.hasNext());
+        assertEquals(30, first.getLast().getId());
+
+        Page<ProductTile> last = snapshot.findTilePage(null, 90, 30);
+        assertEquals(10, last.getItems().size());
+        assertFalse(last.hasNext());
+
+        Page<ProductTile> even = snapshot.findTilePage(1, 80, 10);
+        assertEquals(10, even.getItems().size());
+        assertEquals(82, even.getItems().get(0).getId());
+        assertFalse(even.hasNext());
+        assertEquals("Product 82", even.getItems().get(0).getName());
+    }
+
+    @Test
+    void testRejectsTruncatedFiles() throws IOException {
+        Path file = tempDir.resolve("catalog.snap");
+        CatalogSnapshotFile.write(file, 0, List.of(new Category(1, "Books", 1)),
+                List.of(new Product(1, "Novel", 1.0, 1, 1)).iterator());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+        assertThrows(IOException.class, () -> CatalogSnapshotFile.open(file));
+    }
+
+    @Test
+    void testProductsMustBeInIdOrder() {
+        Path file = tempDir.resolve("catalog.snap");
+        List<Product> products = List.of(new Product(2, "B", 1.0, 1, 1), new Product(1, "A", 1.0, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogSnapshotFile.write(file, 0, List.of(), products.iterator()));
+    }
+
+    @Test
+    void testNamesLargerThanTheWriteBufferLeaveNoTemporaryFile() throws IOException {
+        Path file = tempDir.resolve("catalog.snap");
+        List<Product> products = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            products.add(new Product(id, "Product with a fairly long name, number " + id, 1.0, 1, id));
+        }
+
+        assertEquals(5000, CatalogSnapshotFile.write(file, 0, List.of(), products.iterator()));
+        CatalogSnapshotFile snapshot = CatalogSnapshotFile.open(file);
+        assertEquals("Product with a fairly long name, number 1", snapshot.getProduct(0).getName());
+        assertEquals("Product with a fairly long name, number 5000", snapshot.getProduct(4999).getName());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+}
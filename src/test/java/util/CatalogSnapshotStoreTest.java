@@ -0,0 +1,119 @@
+package util;
+
+import DAO.CategoryDAO;
+import DAO.ProductDAO;
+import db.DatabaseConnection;
+import models.Category;
+import models.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Works on committed rows, since the store reads on connections of its own
+public class CatalogSnapshotStoreTest {
+    private final CategoryDAO categoryDAO = new CategoryDAO();
+    private final ProductDAO productDAO = new ProductDAO();
+    private final List<Integer> productIds = new ArrayList<>();
+    private int categoryId;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        categoryId = categoryDAO.createCategory(new Category(0, "Snapshot_" + UUID.randomUUID().toString().substring(0, 8), 1));
+        assertTrue(categoryId > 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int id : productIds) {
+            productDAO.deleteProduct(id);
+        }
+        categoryDAO.deleteCategory(categoryId);
+    }
+
+    @Test
+    void testRefreshAppliesChangesSinceTheLastSnapshot() throws IOException {
+        int kept = createProduct("Kept", 5);
+        int edited = createProduct("Edited", 5);
+        int removed = createProduct("Removed", 5);
+        CatalogSnapshotStore store = new CatalogSnapshotStore(tempDir);
+        assertNull(store.openLatest());
+
+        CatalogSnapshotFile first = store.refresh();
+        assertNotNull(first);
+        assertTrue(first.indexOf(removed) >= 0);
+        assertSame(first, store.refresh(), "nothing changed, so nothing is rewritten");
+
+        Product product = productDAO.findById(edited);
+        product.setStock(1);
+        assertTrue(productDAO.updateProduct(product));
+        assertTrue(productDAO.deleteProduct(removed));
+        int added = createProduct("Added", 2);
+
+        CatalogSnapshotFile second = store.refresh();
+        assertNotSame(first, second);
+        assertEquals(5, second.getProduct(second.indexOf(kept)).getStock());
+        assertEquals(1, second.getProduct(second.indexOf(edited)).getStock());
+        assertEquals(-1, second.indexOf(removed));
+        assertEquals("Added", second.getProduct(second.indexOf(added)).getName());
+        assertTrue(second.getCategories().stream().anyMatch(c -> c.getId() == categoryId));
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "older snapshots are deleted");
+        }
+        CatalogSnapshotFile reopened = new CatalogSnapshotStore(tempDir).openLatest();
+        assertEquals(second.getChangeTime(), reopened.getChangeTime());
+        assertEquals(second.getProductCount(), reopened.getProductCount());
+    }
+
+    @Test
+    void testInsertCommittedAfterAHigherIdIsPickedUp() throws SQLException {
+        createProduct("Existing", 1);
+        CatalogSnapshotStore store = new CatalogSnapshotStore(tempDir);
+        assertNotNull(store.refresh());
+
+        int late;
+        try (Connection slow = DatabaseConnection.getConnection()) {
+            slow.setAutoCommit(false);
+            ProductDAO slowDAO = new ProductDAO();
+            slowDAO.setConnection(slow);
+            late = slowDAO.createProduct(new Product(0, "Late", 4.5, categoryId, 3));
+            assertTrue(late > 0);
+            productIds.add(late);
+            int early = createProduct("Early", 2);
+            assertTrue(early > late);
+
+            CatalogSnapshotFile before = store.refresh();
+            assertTrue(before.indexOf(early) >= 0);
+            assertEquals(-1, before.indexOf(late), "not committed yet");
+            slow.commit();
+            slow.setAutoCommit(true);
+        }
+
+        CatalogSnapshotFile after = store.refresh();
+        assertTrue(after.indexOf(late) >= 0, "a lower id committed later must not be skipped");
+        assertEquals("Late", after.getProduct(after.indexOf(late)).getName());
+    }
+
+    private int createProduct(String name, int stock) {
+        int id = productDAO.createProduct(new Product(0, name, 4.5, categoryId, stock));
+        assertTrue(id > 0);
+        productIds.add(id);
+        return id;
+    }
+}
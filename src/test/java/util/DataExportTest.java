@@ -0,0 +1,118 @@
+package util;
+
+import DAO.CategoryDAO;
+import DAO.OrderDAO;
+import DAO.ProductDAO;
+import db.DatabaseConnection;
+import models.*;
+import models.Order;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataExportTest {
+    private ProductDAO productDAO;
+    private OrderDAO orderDAO;
+    private Connection testConnection;
+    private int testCategoryId;
+    private DataExport export;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        testConnection = DatabaseConnection.getConnection();
+        testConnection.setAutoCommit(false);
+
+        productDAO = new ProductDAO();
+        productDAO.setConnection(testConnection);
+        orderDAO = new OrderDAO();
+        orderDAO.setConnection(testConnection);
+        CategoryDAO categoryDAO = new CategoryDAO();
+        categoryDAO.setConnection(testConnection);
+
+        testCategoryId = categoryDAO.createCategory(
+                new Category(0, "Export_" + UUID.randomUUID().toString().substring(0, 8), 1));
+        export = new DataExport(productDAO, orderDAO);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        testConnection.rollback();
+        testConnection.close();
+    }
+
+    @Test
+    void testProductsCsvQuotesAndRoundTrips() throws IOException {
+        int productId = productDAO.createProduct(new Product(0, "Lamp, \"desk\"", 19.5, testCategoryId, 4));
+        Path file = tempDir.resolve("products.csv");
+
+        long rows = export.export(DataExport.Dataset.PRODUCTS, file, null, null, null);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("id,name,price,category_id,stock", lines.get(0));
+        assertEquals(rows, lines.size() - 1);
+        assertTrue(lines.contains(productId + ",\"Lamp, \"\"desk\"\"\",19.50," + testCategoryId + ",4"), lines.toString());
+    }
+
+    @Test
+    void testGzipNdjsonOrdersHonourFilters() throws IOException {
+        Product product = new Product(0, "Exported", 5.0, testCategoryId, 10);
+        product.setId(productDAO.createProduct(product));
+        Order order = new Order(1, 10.0);
+        int orderId = orderDAO.createOrder(order, List.of(new OrderItem(0, product, 2, 5.0)));
+        orderDAO.updateOrderStatus(orderId, OrderStatus.CANCELED);
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+
+        Path orders = tempDir.resolve("orders.ndjson.gz");
+        assertTrue(export.export(DataExport.Dataset.ORDERS, orders, from, null, OrderStatus.CANCELED) >= 1);
+        String json = gunzip(orders);
+        assertTrue(json.contains("{\"id\":" + orderId + ",\"user_id\":1,"), json);
+        assertTrue(json.contains("\"total\":10.00,\"status\":\"CANCELED\"}"), json);
+
+        Path items = tempDir.resolve("items.csv.gz");
+        export.export(DataExport.Dataset.ORDER_ITEMS, items, from, null, OrderStatus.CANCELED);
+        assertTrue(gunzip(items).contains(orderId + "," + product.getId() + ",2,5.00\n"));
+
+        Path older = tempDir.resolve("older.ndjson");
+        export.export(DataExport.Dataset.ORDERS, older, null, from, OrderStatus.CANCELED);
+        assertFalse(Files.readString(older).contains("{\"id\":" + orderId + ","));
+    }
+
+    @Test
+    void testLargeExportSpansManyBuffers() throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            products.add(new Product(0, "Bulk product " + i + " with a reasonably long name", i, testCategoryId, i));
+        }
+        assertEquals(3000, productDAO.createProducts(products).size());
+
+        Path plain = tempDir.resolve("products.csv");
+        Path gzip = tempDir.resolve("products.csv.gz");
+        long rows = export.export(DataExport.Dataset.PRODUCTS, plain, null, null, null);
+        assertEquals(rows, export.export(DataExport.Dataset.PRODUCTS, gzip, null, null, null));
+
+        assertEquals(Files.readString(plain), gunzip(gzip));
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
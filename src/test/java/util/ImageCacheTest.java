@@ -0,0 +1,58 @@
+package util;
+
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Decoding needs the JavaFX toolkit, so these cover the cache around it with stand-in images
+public class ImageCacheTest {
+    private final ImageCache cache = new ImageCache(100_000, null, task -> {
+        throw new AssertionError("nothing should be loaded");
+    });
+
+    @Test
+    void testEvictsLeastRecentlyUsedBeyondMaxBytes() throws Exception {
+        Image a = image(100, 100);
+        Image b = image(100, 100);
+        cache.put(ImageCache.keyOf("a", 100, 100), a);
+        cache.put(ImageCache.keyOf("b", 100, 100), b);
+        assertEquals(80_000, cache.getBytes());
+
+        CompletableFuture<Image> hit = cache.load("a", 100, 100);
+        assertSame(a, hit.get());
+        cache.put(ImageCache.keyOf("c", 100, 100), image(100, 100));
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        assertSame(a, cache.load("a", 100, 100).get(), "a was used more recently than b and should have stayed");
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void testImageBiggerThanTheCacheIsNotKept() {
+        cache.put(ImageCache.keyOf("huge", 400, 400), image(400, 400));
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    void testLoaderFailureCompletesWithNull() throws Exception {
+        ImageCache rejecting = new ImageCache(100_000, null, task -> {
+            throw new java.util.concurrent.RejectedExecutionException();
+        });
+        assertNull(rejecting.load("a", 10, 10).get());
+        assertEquals(1, rejecting.getMisses());
+    }
+
+    private static Image image(double width, double height) {
+        Image image = mock(Image.class);
+        when(image.getWidth()).thenReturn(width);
+        when(image.getHeight()).thenReturn(height);
+        return image;
+    }
+}
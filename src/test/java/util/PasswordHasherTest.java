@@ -0,0 +1,49 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    @Test
+    void testVerifyMatchesOnlyTheHashedPassword() throws Exception {
+        String hash = PasswordHasher.hash("secret");
+        assertTrue(PasswordHasher.verifyAsync("secret", hash).get(10, TimeUnit.SECONDS));
+        assertFalse(PasswordHasher.verify("wrong", hash));
+        assertFalse(PasswordHasher.verify("secret", "not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void testSaturatedPoolRejectsInsteadOfQueueing() throws Exception {
+        ExecutorService pool = PasswordHasher.create(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(() -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            String hash = PasswordHasher.hash("secret");
+            CompletableFuture<Boolean> queued = PasswordHasher.verifyAsync("secret", hash, pool);
+            CompletableFuture<Boolean> rejected = PasswordHasher.verifyAsync("secret", hash, pool);
+
+            ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+            release.countDown();
+            assertTrue(queued.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThumbnailStoreTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() {
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("thumbs"));
+        int[] argb = {0xFF000000, 0xFFFFFFFF, 0x80FF0000, 0x0000FF00, 1, 2};
+        store.write("120x120 file:/photo.png", 42L, new ThumbnailStore.Pixels(3, 2, argb));
+
+        ThumbnailStore.Pixels read = store.read("120x120 file:/photo.png", 42L);
+        assertNotNull(read);
+        assertEquals(3, read.getWidth());
+        assertEquals(2, read.getHeight());
+        assertArrayEquals(argb, read.getArgb());
+        assertNull(store.read("100x100 file:/photo.png", 42L), "each size is stored separately");
+    }
+
+    @Test
+    void testSourceChangeOrDamageMakesThumbnailStale() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(tempDir);
+        store.write("key", 1L, new ThumbnailStore.Pixels(2, 2, new int[4]));
+        assertNull(store.read("key", 2L));
+
+        Path file;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            file = files.findFirst().orElseThrow();
+        }
+        Files.write(file, new byte[]{1, 2, 3});
+        assertNull(store.read("key", 1L));
+    }
+}